@@ -0,0 +1,48 @@
+package vest.doctor;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Access to the runtime statistics of instrumented executors. Executors configured with
+ * <code>executors.[name].instrumented = true</code> are registered automatically when they are created.
+ * Automatically provided by the {@link ProviderRegistry}.
+ */
+public final class ExecutorMetrics {
+
+    private final Map<String, Supplier<ExecutorStats>> executors = new ConcurrentHashMap<>();
+
+    /**
+     * Register an executor.
+     *
+     * @param name  the name of the executor
+     * @param stats supplies the current statistics for the executor
+     */
+    public void register(String name, Supplier<ExecutorStats> stats) {
+        executors.put(name, stats);
+    }
+
+    /**
+     * Get the current statistics for an executor.
+     *
+     * @param name the name of the executor
+     * @return the statistics, or empty if the executor is not instrumented or hasn't been created
+     */
+    public Optional<ExecutorStats> stats(String name) {
+        return Optional.ofNullable(executors.get(name)).map(Supplier::get);
+    }
+
+    /**
+     * Get the current statistics for all registered executors.
+     *
+     * @return statistics by executor name
+     */
+    public Map<String, ExecutorStats> stats() {
+        Map<String, ExecutorStats> stats = new TreeMap<>();
+        executors.forEach((name, supplier) -> stats.put(name, supplier.get()));
+        return stats;
+    }
+}
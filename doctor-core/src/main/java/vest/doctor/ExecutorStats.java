@@ -0,0 +1,41 @@
+package vest.doctor;
+
+/**
+ * Runtime statistics for an instrumented executor, see {@link ExecutorMetrics}.
+ *
+ * @param name          the name of the executor
+ * @param queueDepth    the number of tasks waiting for a thread
+ * @param activeThreads the approximate number of threads running tasks
+ * @param corePoolSize  the number of threads kept in the pool when idle
+ * @param poolSize      the current number of threads in the pool
+ * @param peakPoolSize  the largest number of threads that have been in the pool at once
+ * @param completed     the approximate number of tasks that have completed
+ * @param rejected      the number of tasks rejected by the executor
+ * @param queueWait     the time tasks spent waiting for a thread; for scheduled executors the time
+ *                      between when a task was due and when it started
+ * @param runTime       the time tasks spent running
+ */
+public record ExecutorStats(String name,
+                            int queueDepth,
+                            int activeThreads,
+                            int corePoolSize,
+                            int poolSize,
+                            int peakPoolSize,
+                            long completed,
+                            long rejected,
+                            Timing queueWait,
+                            Timing runTime) {
+
+    /**
+     * A summary of recorded durations. Percentiles are approximate, within 12.5% of the recorded values.
+     *
+     * @param count     the number of recorded durations
+     * @param meanNanos the mean duration in nanoseconds
+     * @param p50Nanos  the median duration in nanoseconds
+     * @param p90Nanos  the 90th percentile duration in nanoseconds
+     * @param p99Nanos  the 99th percentile duration in nanoseconds
+     * @param maxNanos  the maximum duration in nanoseconds
+     */
+    public record Timing(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+    }
+}
@@ -0,0 +1,33 @@
+package vest.doctor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An executor that runs tasks with the same key serially, in submission order, while tasks with different keys run
+ * in parallel. Keys are hashed onto a fixed number of partitions, each served by at most one worker thread at a
+ * time, so unrelated keys that share a partition are also run serially.
+ * <p>
+ * Tasks submitted without a key, e.g. via {@link #execute(Runnable)}, are spread across the partitions and have no
+ * ordering guarantees.
+ */
+public interface PartitionedExecutor extends ExecutorService {
+
+    /**
+     * Execute a task after all previously submitted tasks with the same key have completed.
+     *
+     * @param key     the ordering key; must not be null
+     * @param command the task
+     */
+    void execute(Object key, Runnable command);
+
+    /**
+     * Submit a task to run after all previously submitted tasks with the same key have completed.
+     *
+     * @param key  the ordering key; must not be null
+     * @param task the task
+     * @return a future for the task result
+     */
+    <T> Future<T> submit(Object key, Callable<T> task);
+}
@@ -0,0 +1,98 @@
+package vest.doctor;
+
+import vest.doctor.runtime.DurationRecorder;
+import vest.doctor.scheduled.Scheduled;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access to the runtime statistics of {@link Scheduled} methods. Tasks are named by the qualified name of the
+ * declaring class and the method name, e.g. <code>com.example.Reports.refresh</code>; the statistics of all
+ * instances of a class are combined.
+ * Automatically provided by the {@link ProviderRegistry}.
+ */
+public final class ScheduledTaskMetrics {
+
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Get the recorder for a scheduled task, creating it if necessary. Used internally by the scheduled task wrappers.
+     *
+     * @param name the name of the task
+     * @return the recorder for the task
+     */
+    public Task task(String name) {
+        return tasks.computeIfAbsent(name, Task::new);
+    }
+
+    /**
+     * Get the current statistics for a scheduled task.
+     *
+     * @param name the name of the task
+     * @return the statistics, or empty if the task hasn't been scheduled
+     */
+    public Optional<ScheduledTaskStats> stats(String name) {
+        return Optional.ofNullable(tasks.get(name)).map(Task::stats);
+    }
+
+    /**
+     * Get the current statistics for all scheduled tasks.
+     *
+     * @return statistics by task name
+     */
+    public Map<String, ScheduledTaskStats> stats() {
+        Map<String, ScheduledTaskStats> stats = new TreeMap<>();
+        tasks.forEach((name, task) -> stats.put(name, task.stats()));
+        return stats;
+    }
+
+    /**
+     * Records the runs of a scheduled task.
+     */
+    public static final class Task {
+        private final String name;
+        private final DurationRecorder drift = new DurationRecorder();
+        private final DurationRecorder duration = new DurationRecorder();
+        private final LongAdder skipped = new LongAdder();
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Record the start of a run.
+         *
+         * @param driftNanos the time between when the run was due and when it started
+         */
+        public void started(long driftNanos) {
+            drift.record(driftNanos);
+        }
+
+        /**
+         * Record the end of a run.
+         *
+         * @param durationNanos the time the run spent running
+         */
+        public void completed(long durationNanos) {
+            duration.record(durationNanos);
+        }
+
+        /**
+         * Record a fire time that did not run.
+         */
+        public void skipped() {
+            skipped.increment();
+        }
+
+        /**
+         * @return the current statistics for the task
+         */
+        public ScheduledTaskStats stats() {
+            return new ScheduledTaskStats(name, drift.count(), skipped.sum(), drift.snapshot(), duration.snapshot());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package vest.doctor;
+
+/**
+ * Runtime statistics for a scheduled method, see {@link ScheduledTaskMetrics}.
+ *
+ * @param name     the name of the scheduled method
+ * @param runs     the number of runs that have started
+ * @param skipped  the number of fire times that did not run, either because a previous run was still in progress
+ *                 or because they were missed while the scheduler was stalled
+ * @param drift    the time between when runs were due and when they started
+ * @param duration the time runs spent running
+ */
+public record ScheduledTaskStats(String name,
+                                 long runs,
+                                 long skipped,
+                                 ExecutorStats.Timing drift,
+                                 ExecutorStats.Timing duration) {
+}
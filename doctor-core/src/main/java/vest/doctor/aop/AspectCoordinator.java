@@ -4,7 +4,6 @@ import vest.doctor.AnnotationMetadata;
 import vest.doctor.TypeInfo;
 
 import java.lang.reflect.Method;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -18,11 +17,16 @@ public final class AspectCoordinator {
     }
 
     public <T> T call(MethodInvocation methodInvocation) {
-        return new ChainedInvocation(methodInvocation, aspects.iterator()).next();
+        return new ChainedInvocation(methodInvocation, aspects, 0).next();
     }
 
+    /**
+     * Each link in the chain is immutable, so calling {@link #next()} more than once (e.g. to retry) re-executes
+     * the remainder of the chain.
+     */
     record ChainedInvocation(MethodInvocation delegate,
-                             Iterator<Aspect> iterator) implements MethodInvocation {
+                             List<Aspect> aspects,
+                             int position) implements MethodInvocation {
         @Override
         public Object getContainingInstance() {
             return delegate.getContainingInstance();
@@ -66,8 +70,8 @@ public final class AspectCoordinator {
         @Override
         @SuppressWarnings("unchecked")
         public <T> T next() {
-            if (iterator.hasNext()) {
-                return (T) iterator.next().execute(this);
+            if (position < aspects.size()) {
+                return (T) aspects.get(position).execute(new ChainedInvocation(delegate, aspects, position + 1));
             } else {
                 return delegate.next();
             }
@@ -0,0 +1,62 @@
+package vest.doctor.aop;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers shared by the built-in aspects.
+ */
+final class AspectUtils {
+
+    private AspectUtils() {
+    }
+
+    /**
+     * Get the raw return type of the invoked method, <code>void.class</code> if it is unknown.
+     */
+    static Class<?> returnType(MethodInvocation methodInvocation) {
+        return methodInvocation.getReturnType() != null ? methodInvocation.getReturnType().getRawType() : void.class;
+    }
+
+    /**
+     * Determine whether the invoked method can be given a {@link CompletableFuture} as its result, in which case
+     * the built-in aspects complete it asynchronously rather than blocking the caller.
+     */
+    static boolean isAsync(MethodInvocation methodInvocation) {
+        Class<?> returnType = returnType(methodInvocation);
+        return returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * Get the argument values of the invocation as a list suitable for use as a map key.
+     */
+    static List<Object> argumentKey(MethodInvocation methodInvocation) {
+        return Arrays.asList(methodInvocation.getArgumentValues().stream().map(ArgValue::get).toArray());
+    }
+
+    /**
+     * Unwrap the {@link CompletionException} a stage may have wrapped around its failure.
+     */
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Wait for the future, re-throwing unchecked failures as-is and wrapping checked ones in an
+     * {@link AspectException} with the given message.
+     */
+    static <T> T await(CompletableFuture<T> future, String message) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new AspectException(message, e.getCause());
+        }
+    }
+}
@@ -13,6 +13,9 @@ import java.lang.annotation.Target;
  * Aspects are executed in the order that they appear in this annotation. When aspects are marked at the class
  * level as well as the method level, the aspects on the class are executed first (in order) then those
  * on the method.
+ * <p>
+ * This annotation may also be placed on another annotation type, in which case any class or method marked with
+ * that annotation will be wired with the listed aspects, e.g. {@link CircuitBreaker}.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,61 @@
+package vest.doctor.aop;
+
+import vest.doctor.scheduled.Interval;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapses concurrent calls to a single argument method into one call to a companion bulk method. Calls are
+ * collected until {@link #maxSize()} distinct arguments are waiting or {@link #maxDelay()} has passed since the
+ * first call of the batch, then the bulk method is invoked once with all the collected arguments and each caller
+ * receives the value mapped to its argument (or null if the bulk result has no entry for it).
+ * <p>
+ * The bulk method must be a public method of the same class, accepting a {@link java.util.List} (or
+ * {@link java.util.Collection} or {@link java.util.Set}) of arguments and returning a {@link java.util.Map} from
+ * argument to result, or a {@link java.util.concurrent.CompletionStage} of that map:
+ * <pre>
+ * &#64;Batched(bulkMethod = "findUsers", maxSize = 50, maxDelay = "5ms")
+ * public CompletableFuture&lt;User&gt; findUser(Long id) {
+ *     // never called, the bulk method answers for it
+ * }
+ *
+ * public Map&lt;Long, User&gt; findUsers(List&lt;Long&gt; ids) {
+ *     // select ... where id in (...)
+ * }
+ * </pre>
+ * Methods returning a {@link java.util.concurrent.CompletableFuture} (or {@link java.util.concurrent.CompletionStage})
+ * never block the caller; all other methods block until their batch has completed.
+ * <p>
+ * Batches that reach {@link #maxDelay()} are flushed from the built-in "scheduled"
+ * {@link java.util.concurrent.ScheduledExecutorService}, batches that fill up are flushed by the call that
+ * filled them. A bulk method that blocks will block that thread, so long-running bulk methods should return a
+ * {@link java.util.concurrent.CompletionStage}.
+ *
+ * @see BatchedAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Aspects(BatchedAspect.class)
+public @interface Batched {
+
+    /**
+     * The name of the public bulk method on the same class.
+     */
+    String bulkMethod();
+
+    /**
+     * The maximum number of distinct arguments in a single batch.
+     */
+    int maxSize() default 100;
+
+    /**
+     * The maximum amount of time the first call of a batch will wait for other calls to join it.
+     * See {@link Interval} for details on the format.
+     */
+    String maxDelay() default "10ms";
+}
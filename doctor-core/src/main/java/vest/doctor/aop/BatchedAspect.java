@@ -0,0 +1,185 @@
+package vest.doctor.aop;
+
+import vest.doctor.AnnotationData;
+import vest.doctor.scheduled.Interval;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The aspect that implements {@link Batched} methods. Automatically provided by the
+ * {@link vest.doctor.ProviderRegistry}.
+ */
+public final class BatchedAspect implements Aspect {
+
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final Map<MethodKey, Policy> policies = new ConcurrentHashMap<>();
+
+    public BatchedAspect(Supplier<ScheduledExecutorService> scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Object execute(MethodInvocation methodInvocation) {
+        Policy policy = policies.computeIfAbsent(MethodKey.of(methodInvocation), key -> newPolicy(key, methodInvocation));
+        Object instance = methodInvocation.getContainingInstance();
+        Object argument = methodInvocation.getArgumentValue(0).get();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Batch full = null;
+        synchronized (policy) {
+            Batch batch = policy.open.get(instance);
+            if (batch == null) {
+                Batch created = new Batch(instance);
+                // the flush is scheduled before the batch is opened so no caller joins a batch that is never flushed
+                try {
+                    created.timer = scheduler.get().schedule(() -> policy.flushIfOpen(created), policy.maxDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                    return policy.async ? result : AspectUtils.await(result, "error executing batch");
+                }
+                policy.open.put(instance, created);
+                batch = created;
+            }
+            batch.waiters.computeIfAbsent(argument, a -> new ArrayList<>(1)).add(result);
+            if (batch.waiters.size() >= policy.maxSize) {
+                policy.open.remove(instance);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            if (full.timer != null) {
+                full.timer.cancel(false);
+            }
+            policy.flush(full);
+        }
+        return policy.async ? result : AspectUtils.await(result, "error executing batch");
+    }
+
+    private Policy newPolicy(MethodKey key, MethodInvocation methodInvocation) {
+        AnnotationData config = methodInvocation.annotationMetadata()
+                .findOne(Batched.class)
+                .orElseThrow(() -> new IllegalStateException("missing @Batched on " + key.defaultName()));
+        if (methodInvocation.arity() != 1) {
+            throw new IllegalArgumentException("@Batched method " + key.defaultName() + " must have exactly one parameter");
+        }
+        int maxSize = config.intValue("maxSize");
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("invalid maxSize for @Batched on " + key.defaultName() + ": must be greater than 0");
+        }
+        Interval maxDelay = new Interval(config.stringValue("maxDelay"));
+        boolean async = AspectUtils.isAsync(methodInvocation);
+        return new Policy(findBulkMethod(key, config.stringValue("bulkMethod")),
+                maxSize,
+                maxDelay.getUnit().toNanos(maxDelay.getMagnitude()),
+                async);
+    }
+
+    private static Method findBulkMethod(MethodKey key, String name) {
+        for (Method method : key.type().getMethods()) {
+            if (method.getName().equals(name)
+                    && method.getParameterCount() == 1
+                    && (method.getParameterTypes()[0].isAssignableFrom(List.class) || method.getParameterTypes()[0].isAssignableFrom(Set.class))
+                    && (Map.class.isAssignableFrom(method.getReturnType()) || CompletionStage.class.isAssignableFrom(method.getReturnType()))) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("missing public bulk method " + name + " for @Batched on " + key.defaultName()
+                + ": must accept a List, Collection, or Set and return a Map or CompletionStage<Map>");
+    }
+
+    private static final class Batch {
+        private final Object instance;
+        private final Map<Object, List<CompletableFuture<Object>>> waiters = new LinkedHashMap<>();
+        private ScheduledFuture<?> timer;
+
+        Batch(Object instance) {
+            this.instance = instance;
+        }
+
+        void complete(Map<?, ?> results) {
+            for (Map.Entry<Object, List<CompletableFuture<Object>>> entry : waiters.entrySet()) {
+                Object value = results != null ? results.get(entry.getKey()) : null;
+                for (CompletableFuture<Object> waiter : entry.getValue()) {
+                    waiter.complete(value);
+                }
+            }
+        }
+
+        void fail(Throwable error) {
+            for (List<CompletableFuture<Object>> list : waiters.values()) {
+                for (CompletableFuture<Object> waiter : list) {
+                    waiter.completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    private static final class Policy {
+        private final Method bulkMethod;
+        private final boolean listArgument;
+        private final int maxSize;
+        private final long maxDelayNanos;
+        private final boolean async;
+        // open batches by target instance; guarded by synchronizing on the policy
+        private final Map<Object, Batch> open = new IdentityHashMap<>();
+
+        Policy(Method bulkMethod, int maxSize, long maxDelayNanos, boolean async) {
+            this.bulkMethod = bulkMethod;
+            this.listArgument = bulkMethod.getParameterTypes()[0].isAssignableFrom(List.class);
+            this.maxSize = maxSize;
+            this.maxDelayNanos = maxDelayNanos;
+            this.async = async;
+        }
+
+        void flushIfOpen(Batch batch) {
+            synchronized (this) {
+                if (open.get(batch.instance) != batch) {
+                    return;
+                }
+                open.remove(batch.instance);
+            }
+            flush(batch);
+        }
+
+        void flush(Batch batch) {
+            Collection<Object> arguments = listArgument
+                    ? new ArrayList<>(batch.waiters.keySet())
+                    : new LinkedHashSet<>(batch.waiters.keySet());
+            try {
+                Object result = bulkMethod.invoke(batch.instance, arguments);
+                if (result instanceof CompletionStage<?> stage) {
+                    stage.whenComplete((map, error) -> {
+                        if (error != null) {
+                            batch.fail(AspectUtils.unwrap(error));
+                        } else {
+                            batch.complete((Map<?, ?>) map);
+                        }
+                    });
+                } else {
+                    batch.complete((Map<?, ?>) result);
+                }
+            } catch (InvocationTargetException e) {
+                batch.fail(e.getCause());
+            } catch (Throwable t) {
+                batch.fail(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package vest.doctor.aop;
+
+import vest.doctor.Cached;
+import vest.doctor.scheduled.Interval;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoizes the results of a method, keyed by the method arguments and the instance it is invoked on. Unlike {@link Cached}, which caches the
+ * provided instance, this caches the value returned from each call.
+ * <p>
+ * The cache is bounded to {@link #maxSize()} entries; when full, a frequency sketch of recent lookups decides
+ * whether a new entry is worth keeping over the least recently used one (TinyLFU admission), which keeps
+ * frequently used entries from being flushed out by one-off lookups.
+ * <p>
+ * Concurrent calls with the same arguments that miss the cache share a single invocation of the method.
+ * Methods returning a {@link java.util.concurrent.CompletableFuture} cache the future itself; futures that
+ * complete exceptionally are removed from the cache.
+ * <p>
+ * Arguments are compared using {@link Object#equals(Object)}, so array arguments will only match by identity.
+ *
+ * @see CacheResultAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Aspects(CacheResultAspect.class)
+public @interface CacheResult {
+
+    /**
+     * The name of the cache. Methods using the same name share a cache, and with it the {@link #maxSize()} bound
+     * and statistics; each method's results are still keyed separately. Methods sharing a cache must use the same
+     * {@link #maxSize()} and {@link #ttl()}, and either all or none of them must return a
+     * {@link java.util.concurrent.CompletableFuture}. Defaults to <code>[SimpleClassName].[methodName]</code>.
+     */
+    String name() default "";
+
+    /**
+     * The maximum number of results to hold in the cache.
+     */
+    int maxSize() default 1000;
+
+    /**
+     * How long a result will be held after it was computed; the empty string means results never expire.
+     * See {@link Interval} for details on the format.
+     */
+    String ttl() default "";
+}
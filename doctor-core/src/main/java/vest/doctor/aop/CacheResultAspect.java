@@ -0,0 +1,199 @@
+package vest.doctor.aop;
+
+import vest.doctor.AnnotationData;
+import vest.doctor.scheduled.Interval;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * The aspect that implements {@link CacheResult} methods. Automatically provided by the
+ * {@link vest.doctor.ProviderRegistry}.
+ */
+public final class CacheResultAspect implements Aspect {
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits      the number of calls answered from the cache
+     * @param misses    the number of calls that did not find a cached result
+     * @param loads     the number of times the cached method was actually invoked; misses that waited on a
+     *                  concurrent invocation with the same arguments are not counted
+     * @param evictions the number of entries dropped, or not admitted, because the cache was full
+     * @param size      the current number of cached results
+     */
+    public record Stats(long hits, long misses, long loads, long evictions, long size) {
+
+        /**
+         * The fraction of calls answered from the cache.
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 1.0 : (double) hits / total;
+        }
+    }
+
+    private final Map<MethodKey, Region> regions = new ConcurrentHashMap<>();
+    private final Map<String, Region> named = new ConcurrentHashMap<>();
+
+    @Override
+    public Object execute(MethodInvocation methodInvocation) {
+        MethodKey method = MethodKey.of(methodInvocation);
+        Region region = regions.computeIfAbsent(method, key -> newRegion(key, methodInvocation));
+        EntryKey key = new EntryKey(method, methodInvocation.getContainingInstance(), AspectUtils.argumentKey(methodInvocation));
+
+        TinyLfuCache.Node<EntryKey, Object> cached = region.cache.get(key);
+        if (cached != null) {
+            return region.async ? ((CompletableFuture<?>) cached.value()).copy() : cached.value();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = region.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return region.async ? existing.thenCompose(CacheResultAspect::asStage) : AspectUtils.await(existing, "error waiting on cached result");
+        }
+        try {
+            // a concurrent load may have finished between the lookup and claiming the flight
+            cached = region.cache.peek(key);
+            Object result = cached != null ? cached.value() : load(methodInvocation, region, key);
+            flight.complete(result);
+            return region.async ? ((CompletableFuture<?>) result).copy() : result;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            region.inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get the statistics for a cache.
+     *
+     * @param name the name of the cache, see {@link CacheResult#name()}
+     * @return the statistics, or empty if no method using the cache has been called yet
+     */
+    public Optional<Stats> stats(String name) {
+        return Optional.ofNullable(named.get(name)).map(Region::snapshot);
+    }
+
+    /**
+     * Get the statistics for all caches that have been used.
+     *
+     * @return the statistics keyed by name, see {@link CacheResult#name()}
+     */
+    public Map<String, Stats> stats() {
+        return named.entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    /**
+     * Remove all results from a cache.
+     *
+     * @param name the name of the cache, see {@link CacheResult#name()}
+     */
+    public void invalidate(String name) {
+        Region region = named.get(name);
+        if (region != null) {
+            region.cache.invalidateAll();
+        }
+    }
+
+    private Region newRegion(MethodKey key, MethodInvocation methodInvocation) {
+        AnnotationData config = methodInvocation.annotationMetadata()
+                .findOne(CacheResult.class)
+                .orElseThrow(() -> new IllegalStateException("missing @CacheResult on " + key.defaultName()));
+        String name = config.stringValue("name");
+        if (name.isEmpty()) {
+            name = key.defaultName();
+        }
+        Class<?> returnType = AspectUtils.returnType(methodInvocation);
+        if (returnType == void.class) {
+            throw new IllegalArgumentException("@CacheResult can not be used on void method " + name);
+        }
+        boolean async = AspectUtils.isAsync(methodInvocation);
+        String ttl = config.stringValue("ttl");
+        long ttlNanos = 0;
+        if (!ttl.isEmpty()) {
+            Interval interval = new Interval(ttl);
+            ttlNanos = interval.getUnit().toNanos(interval.getMagnitude());
+        }
+        int maxSize = config.intValue("maxSize");
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("invalid maxSize for @CacheResult on " + name + ": must be greater than 0");
+        }
+        long finalTtl = ttlNanos;
+        Region region = named.computeIfAbsent(name, n -> new Region(async, maxSize, finalTtl));
+        if (region.async != async || region.maxSize != maxSize || region.ttlNanos != ttlNanos) {
+            throw new IllegalArgumentException("conflicting @CacheResult on " + key.defaultName() + ": methods sharing the cache "
+                    + name + " must agree on maxSize, ttl, and whether they return a CompletableFuture");
+        }
+        return region;
+    }
+
+    private static Object load(MethodInvocation methodInvocation, Region region, EntryKey key) {
+        region.loads.increment();
+        Object result = methodInvocation.next();
+        if (region.async) {
+            CompletableFuture<?> future = result != null
+                    ? ((CompletionStage<?>) result).toCompletableFuture()
+                    : CompletableFuture.completedFuture(null);
+            region.cache.put(key, future);
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    region.cache.invalidate(key, future);
+                }
+            });
+            return future;
+        }
+        region.cache.put(key, result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletionStage<Object> asStage(Object future) {
+        return (CompletionStage<Object>) future;
+    }
+
+    /**
+     * Cached results are keyed by the method and the instance it was invoked on, as well as the arguments, so
+     * methods sharing a cache never see each other's results.
+     */
+    private record EntryKey(MethodKey method, Object instance, List<Object> arguments) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EntryKey other
+                    && instance == other.instance
+                    && method.equals(other.method)
+                    && arguments.equals(other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * method.hashCode() + System.identityHashCode(instance)) + arguments.hashCode();
+        }
+    }
+
+    private record Region(boolean async,
+                          int maxSize,
+                          long ttlNanos,
+                          TinyLfuCache<EntryKey, Object> cache,
+                          Map<EntryKey, CompletableFuture<Object>> inFlight,
+                          LongAdder loads) {
+
+        Region(boolean async, int maxSize, long ttlNanos) {
+            this(async, maxSize, ttlNanos, new TinyLfuCache<>(maxSize, ttlNanos), new ConcurrentHashMap<>(), new LongAdder());
+        }
+
+        Stats snapshot() {
+            return new Stats(cache.hits.sum(), cache.misses.sum(), loads.sum(), cache.evictions.sum(), cache.size());
+        }
+    }
+}
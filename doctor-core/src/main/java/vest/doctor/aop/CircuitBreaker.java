@@ -0,0 +1,109 @@
+package vest.doctor.aop;
+
+import vest.doctor.event.CircuitBreakerStateChanged;
+import vest.doctor.scheduled.Interval;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guards a method with a circuit breaker. The outcomes of recent invocations are tracked in a sliding window;
+ * when the failure rate in the window reaches the {@link #failureRateThreshold()} the breaker opens and
+ * further invocations fail fast with a {@link CircuitBreakerOpenException} (or are routed to the
+ * {@link #fallback()} method) until the {@link #openDuration()} has passed. The breaker then moves to half-open
+ * and permits a limited number of trial invocations: if they all succeed the breaker closes, a single failure
+ * re-opens it.
+ * <p>
+ * Every state transition is published to the {@link vest.doctor.event.EventBus} as a
+ * {@link CircuitBreakerStateChanged} event.
+ * <p>
+ * Methods returning a {@link java.util.concurrent.CompletionStage} have their outcome recorded when the
+ * stage completes; they never throw, failures (including an open breaker) are reported through the returned stage
+ * and a failed stage is routed to the {@link #fallback()} method.
+ *
+ * @see CircuitBreakerAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Aspects(CircuitBreakerAspect.class)
+public @interface CircuitBreaker {
+
+    enum State {
+        /**
+         * Invocations are permitted and their outcomes recorded.
+         */
+        CLOSED,
+        /**
+         * Invocations are rejected without calling the method.
+         */
+        OPEN,
+        /**
+         * A limited number of trial invocations are permitted to determine if the breaker should close.
+         */
+        HALF_OPEN
+    }
+
+    enum WindowType {
+        /**
+         * The window holds the outcomes of the last {@link #windowSize()} invocations.
+         */
+        COUNT,
+        /**
+         * The window holds the outcomes of the invocations made in the last {@link #windowSize()} seconds.
+         */
+        TIME
+    }
+
+    /**
+     * The name of the circuit breaker. Methods using the same name share a breaker. Defaults to
+     * <code>[SimpleClassName].[methodName]</code>.
+     */
+    String name() default "";
+
+    /**
+     * The type of sliding window used to track invocation outcomes.
+     */
+    WindowType windowType() default WindowType.COUNT;
+
+    /**
+     * The size of the sliding window; a number of invocations for {@link WindowType#COUNT} or a number of seconds
+     * for {@link WindowType#TIME}.
+     */
+    int windowSize() default 100;
+
+    /**
+     * The minimum number of invocations that must be recorded in the window before the failure rate is evaluated.
+     */
+    int minimumCalls() default 10;
+
+    /**
+     * The failure rate percentage, between 1 and 100, at or above which the breaker will open.
+     */
+    int failureRateThreshold() default 50;
+
+    /**
+     * How long the breaker will stay open before moving to half-open. See {@link Interval} for details on the format.
+     */
+    String openDuration() default "60s";
+
+    /**
+     * The number of trial invocations permitted while half-open.
+     */
+    int halfOpenCalls() default 5;
+
+    /**
+     * The name of a public method on the same class to call instead of the guarded method when the breaker is
+     * open or the invocation fails. The fallback method must have either the same parameter types as the guarded
+     * method, or the same parameter types followed by a {@link Throwable}, which will receive the failure.
+     */
+    String fallback() default "";
+
+    /**
+     * Exception types that will be re-thrown without being counted as failures.
+     */
+    Class<? extends Throwable>[] ignore() default {};
+}
@@ -0,0 +1,425 @@
+package vest.doctor.aop;
+
+import vest.doctor.AnnotationData;
+import vest.doctor.TypeInfo;
+import vest.doctor.event.CircuitBreakerStateChanged;
+import vest.doctor.event.EventBus;
+import vest.doctor.scheduled.Interval;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The aspect that implements {@link CircuitBreaker} methods. Automatically provided by the
+ * {@link vest.doctor.ProviderRegistry}.
+ */
+public final class CircuitBreakerAspect implements Aspect {
+
+    private final EventBus eventBus;
+    private final Map<MethodKey, Guard> guards = new ConcurrentHashMap<>();
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerAspect(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public Object execute(MethodInvocation methodInvocation) {
+        Guard guard = guards.computeIfAbsent(MethodKey.of(methodInvocation), key -> newGuard(key, methodInvocation));
+        Breaker breaker = guard.breaker();
+        if (!breaker.tryAcquire()) {
+            return guard.fallbackOrThrow(methodInvocation, new CircuitBreakerOpenException(breaker.name));
+        }
+        Object result;
+        try {
+            result = methodInvocation.next();
+        } catch (RuntimeException e) {
+            if (guard.isIgnored(e)) {
+                breaker.onIgnored();
+                throw e;
+            }
+            breaker.onFailure();
+            return guard.fallbackOrThrow(methodInvocation, e);
+        }
+        if (result instanceof CompletionStage<?> stage) {
+            CompletionStage<?> guarded = stage.whenComplete((value, error) -> {
+                if (error == null) {
+                    breaker.onSuccess();
+                } else if (guard.isIgnored(error)) {
+                    breaker.onIgnored();
+                } else {
+                    breaker.onFailure();
+                }
+            });
+            if (guard.fallback() != null) {
+                // asynchronous failures are routed to the fallback just like synchronous ones
+                CompletableFuture<Object> future = new CompletableFuture<>();
+                guarded.whenComplete((value, error) -> {
+                    if (error == null) {
+                        future.complete(value);
+                    } else if (guard.isIgnored(error)) {
+                        future.completeExceptionally(AspectUtils.unwrap(error));
+                    } else {
+                        guard.fallback().callAsync(methodInvocation, AspectUtils.unwrap(error)).whenComplete((v, e) -> {
+                            if (e == null) {
+                                future.complete(v);
+                            } else {
+                                future.completeExceptionally(AspectUtils.unwrap(e));
+                            }
+                        });
+                    }
+                });
+                return future;
+            }
+        } else {
+            breaker.onSuccess();
+        }
+        return result;
+    }
+
+    /**
+     * Get the current state of a circuit breaker.
+     *
+     * @param name the name of the circuit breaker
+     * @return the state of the breaker, or empty if no breaker with the name has been used yet
+     */
+    public Optional<CircuitBreaker.State> state(String name) {
+        return Optional.ofNullable(breakers.get(name)).map(Breaker::state);
+    }
+
+    private Guard newGuard(MethodKey key, MethodInvocation methodInvocation) {
+        AnnotationData config = methodInvocation.annotationMetadata()
+                .findOne(CircuitBreaker.class)
+                .orElseThrow(() -> new IllegalStateException("missing @CircuitBreaker on " + key.defaultName()));
+        String name = config.stringValue("name");
+        if (name.isEmpty()) {
+            name = key.defaultName();
+        }
+        Breaker breaker = breakers.computeIfAbsent(name, n -> new Breaker(n, config, eventBus));
+        String fallbackName = config.stringValue("fallback");
+        Fallback fallback = fallbackName.isEmpty() ? null : Fallback.find(key, fallbackName);
+        return new Guard(breaker, fallback, config.classArrayValue("ignore"), AspectUtils.isAsync(methodInvocation));
+    }
+
+    private record Guard(Breaker breaker, Fallback fallback, List<Class<?>> ignore, boolean async) {
+
+        boolean isIgnored(Throwable error) {
+            for (Throwable t = error; t != null; t = t.getCause()) {
+                for (Class<?> type : ignore) {
+                    if (type.isInstance(t)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Object fallbackOrThrow(MethodInvocation methodInvocation, RuntimeException error) {
+            if (async) {
+                // methods returning a stage fail through the stage rather than by throwing
+                return fallback != null
+                        ? fallback.callAsync(methodInvocation, error)
+                        : CompletableFuture.failedFuture(error);
+            }
+            if (fallback == null) {
+                throw error;
+            }
+            return fallback.call(methodInvocation, error);
+        }
+    }
+
+    private record Fallback(Method method, boolean acceptsError) {
+
+        static Fallback find(MethodKey key, String name) {
+            Class<?>[] parameterTypes = key.parameters().stream().map(TypeInfo::getRawType).toArray(Class<?>[]::new);
+            try {
+                return new Fallback(key.type().getMethod(name, parameterTypes), false);
+            } catch (NoSuchMethodException e) {
+                // try the variant that accepts the error
+            }
+            Class<?>[] withError = Arrays.copyOf(parameterTypes, parameterTypes.length + 1);
+            withError[parameterTypes.length] = Throwable.class;
+            try {
+                return new Fallback(key.type().getMethod(name, withError), true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("missing public fallback method " + name + " for circuit breaker on " + key.defaultName(), e);
+            }
+        }
+
+        CompletionStage<?> callAsync(MethodInvocation methodInvocation, Throwable error) {
+            try {
+                CompletionStage<?> stage = (CompletionStage<?>) call(methodInvocation, error);
+                return stage != null ? stage : CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        Object call(MethodInvocation methodInvocation, Throwable error) {
+            Object[] args = new Object[methodInvocation.arity() + (acceptsError ? 1 : 0)];
+            for (int i = 0; i < methodInvocation.arity(); i++) {
+                args[i] = methodInvocation.getArgumentValue(i).get();
+            }
+            if (acceptsError) {
+                args[args.length - 1] = error instanceof AspectException && error.getCause() != null ? error.getCause() : error;
+            }
+            try {
+                return method.invoke(methodInvocation.getContainingInstance(), args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new AspectException("error executing fallback method " + method.getName(), e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new AspectException("error executing fallback method " + method.getName(), e);
+            }
+        }
+    }
+
+    private static final class Breaker {
+        private final String name;
+        private final OutcomeWindow window;
+        private final int minimumCalls;
+        private final int failureRateThreshold;
+        private final long openNanos;
+        private final int halfOpenCalls;
+        private final EventBus eventBus;
+
+        // the state and open deadline change together, so a transition that loses the race leaves both untouched
+        private final AtomicReference<Status> status = new AtomicReference<>(new Status(CircuitBreaker.State.CLOSED, 0));
+        private final AtomicInteger halfOpenPermits = new AtomicInteger();
+        private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+        Breaker(String name, AnnotationData config, EventBus eventBus) {
+            this.name = name;
+            int windowSize = config.intValue("windowSize");
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("invalid windowSize for circuit breaker " + name + ": must be greater than 0");
+            }
+            this.window = switch ((CircuitBreaker.WindowType) config.enumValue("windowType")) {
+                case COUNT -> new CountWindow(windowSize);
+                case TIME -> new TimeWindow(windowSize);
+            };
+            this.minimumCalls = Math.max(1, config.intValue("minimumCalls"));
+            this.failureRateThreshold = config.intValue("failureRateThreshold");
+            if (failureRateThreshold < 1 || failureRateThreshold > 100) {
+                throw new IllegalArgumentException("invalid failureRateThreshold for circuit breaker " + name + ": must be between 1 and 100");
+            }
+            Interval interval = new Interval(config.stringValue("openDuration"));
+            this.openNanos = interval.getUnit().toNanos(interval.getMagnitude());
+            this.halfOpenCalls = Math.max(1, config.intValue("halfOpenCalls"));
+            this.eventBus = eventBus;
+        }
+
+        CircuitBreaker.State state() {
+            return status.get().state();
+        }
+
+        boolean tryAcquire() {
+            Status current = status.get();
+            return switch (current.state()) {
+                case CLOSED -> true;
+                case OPEN -> {
+                    if (System.nanoTime() - current.openUntil() < 0) {
+                        yield false;
+                    }
+                    transition(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN);
+                    yield tryAcquire();
+                }
+                case HALF_OPEN -> halfOpenPermits.getAndDecrement() > 0;
+            };
+        }
+
+        void onSuccess() {
+            switch (state()) {
+                case CLOSED -> window.record(false);
+                case HALF_OPEN -> {
+                    if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls) {
+                        transition(CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED);
+                    }
+                }
+                case OPEN -> {
+                    // outcomes of calls that started before the breaker opened are not relevant
+                }
+            }
+        }
+
+        void onFailure() {
+            switch (state()) {
+                case CLOSED -> {
+                    window.record(true);
+                    if (window.exceeds(minimumCalls, failureRateThreshold)) {
+                        transition(CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> transition(CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN);
+                case OPEN -> {
+                    // outcomes of calls that started before the breaker opened are not relevant
+                }
+            }
+        }
+
+        void onIgnored() {
+            if (state() == CircuitBreaker.State.HALF_OPEN) {
+                halfOpenPermits.incrementAndGet();
+            }
+        }
+
+        private void transition(CircuitBreaker.State from, CircuitBreaker.State to) {
+            Status current = status.get();
+            if (current.state() != from) {
+                return;
+            }
+            long openUntil = to == CircuitBreaker.State.OPEN ? System.nanoTime() + openNanos : 0;
+            if (!status.compareAndSet(current, new Status(to, openUntil))) {
+                return;
+            }
+            switch (to) {
+                case OPEN -> halfOpenPermits.set(0);
+                case HALF_OPEN -> {
+                    halfOpenSuccesses.set(0);
+                    halfOpenPermits.set(halfOpenCalls);
+                }
+                case CLOSED -> window.reset();
+            }
+            eventBus.publish(new CircuitBreakerStateChanged(name, from, to));
+        }
+    }
+
+    private record Status(CircuitBreaker.State state, long openUntil) {
+    }
+
+    private interface OutcomeWindow {
+
+        void record(boolean failure);
+
+        boolean exceeds(int minimumCalls, int failureRateThreshold);
+
+        void reset();
+    }
+
+    /**
+     * Ring buffer of the last N outcomes with running totals.
+     */
+    private static final class CountWindow implements OutcomeWindow {
+        private static final int EMPTY = 0;
+        private static final int SUCCESS = 1;
+        private static final int FAILURE = 2;
+
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        CountWindow(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        @Override
+        public void record(boolean failure) {
+            int i = (int) (cursor.getAndIncrement() % outcomes.length());
+            adjust(outcomes.getAndSet(i, failure ? FAILURE : SUCCESS), failure ? FAILURE : SUCCESS);
+        }
+
+        @Override
+        public boolean exceeds(int minimumCalls, int failureRateThreshold) {
+            int c = calls.get();
+            return c >= minimumCalls && failures.get() * 100L >= (long) failureRateThreshold * c;
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < outcomes.length(); i++) {
+                adjust(outcomes.getAndSet(i, EMPTY), EMPTY);
+            }
+        }
+
+        private void adjust(int previous, int current) {
+            if (previous == EMPTY && current != EMPTY) {
+                calls.incrementAndGet();
+            } else if (previous != EMPTY && current == EMPTY) {
+                calls.decrementAndGet();
+            }
+            if (previous == FAILURE) {
+                failures.decrementAndGet();
+            }
+            if (current == FAILURE) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * One bucket per second, each packed into a long: [epoch second (32 bits)][calls (16 bits)][failures (16 bits)].
+     * Counts saturate rather than overflow, which preserves the failure ratio.
+     */
+    private static final class TimeWindow implements OutcomeWindow {
+        private static final long MAX_COUNT = 0xFFFF;
+
+        private final AtomicLongArray buckets;
+
+        TimeWindow(int seconds) {
+            this.buckets = new AtomicLongArray(seconds);
+        }
+
+        @Override
+        public void record(boolean failure) {
+            long now = currentSecond();
+            int i = (int) (now % buckets.length());
+            while (true) {
+                long current = buckets.get(i);
+                long calls = 0;
+                long failures = 0;
+                if (current >>> 32 == now) {
+                    calls = (current >>> 16) & MAX_COUNT;
+                    failures = current & MAX_COUNT;
+                }
+                if (calls == MAX_COUNT) {
+                    return;
+                }
+                long next = (now << 32) | ((calls + 1) << 16) | (failures + (failure ? 1 : 0));
+                if (buckets.compareAndSet(i, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean exceeds(int minimumCalls, int failureRateThreshold) {
+            long now = currentSecond();
+            long calls = 0;
+            long failures = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                long bucket = buckets.get(i);
+                if (now - (bucket >>> 32) < buckets.length()) {
+                    calls += (bucket >>> 16) & MAX_COUNT;
+                    failures += bucket & MAX_COUNT;
+                }
+            }
+            return calls >= minimumCalls && failures * 100L >= failureRateThreshold * calls;
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        private static long currentSecond() {
+            return (System.currentTimeMillis() / 1000) & 0xFFFFFFFFL;
+        }
+    }
+}
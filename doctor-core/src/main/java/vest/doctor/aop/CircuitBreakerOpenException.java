@@ -0,0 +1,11 @@
+package vest.doctor.aop;
+
+/**
+ * Thrown when an invocation is rejected by an open {@link CircuitBreaker}.
+ */
+public final class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("circuit breaker " + name + " is open", null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package vest.doctor.aop;
+
+import vest.doctor.TypeInfo;
+
+import java.util.List;
+
+/**
+ * Identifies an aspected method independent of the instance it was invoked on. Used by the built-in aspects
+ * to hold per-method state.
+ */
+record MethodKey(Class<?> type, String methodName, List<TypeInfo> parameters) {
+
+    static MethodKey of(MethodInvocation methodInvocation) {
+        return new MethodKey(methodInvocation.getContainingInstance().getClass(), methodInvocation.getMethodName(), methodInvocation.getMethodParameters());
+    }
+
+    String defaultName() {
+        return type.getSimpleName() + "." + methodName;
+    }
+}
@@ -0,0 +1,64 @@
+package vest.doctor.aop;
+
+import vest.doctor.scheduled.Interval;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a method when it fails with one of the {@link #retryOn()} exception types.
+ * <p>
+ * Methods returning a {@link java.util.concurrent.CompletableFuture} (or {@link java.util.concurrent.CompletionStage})
+ * or a {@link java.util.concurrent.Flow.Publisher} (or {@link vest.doctor.reactive.Rx}) are retried asynchronously: the backoff delay is scheduled
+ * on the built-in "scheduled" {@link java.util.concurrent.ScheduledExecutorService} and no thread is blocked while
+ * waiting. All other methods are retried on the calling thread, which blocks for the backoff delay, bounded by
+ * {@link #maxDelay()}. Methods declaring any other publisher type can not be retried, as the retrying publisher
+ * could not be returned from them.
+ *
+ * @see RetryAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Aspects(RetryAspect.class)
+public @interface Retry {
+
+    /**
+     * The name used to report retry statistics. Defaults to <code>[SimpleClassName].[methodName]</code>.
+     */
+    String name() default "";
+
+    /**
+     * The maximum number of times the method will be invoked, including the first invocation.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * The delay before the first retry. See {@link Interval} for details on the format.
+     */
+    String backoff() default "100ms";
+
+    /**
+     * The multiplier applied to the delay after each retry; 1 results in a fixed delay between attempts.
+     */
+    double multiplier() default 1;
+
+    /**
+     * The upper bound for a single backoff delay. See {@link Interval} for details on the format.
+     */
+    String maxDelay() default "10s";
+
+    /**
+     * The fraction of the delay, between 0 and 1, that will be randomly added to or subtracted from each backoff
+     * delay, e.g. 0.2 will randomize a 100ms backoff to between 80ms and 120ms.
+     */
+    double jitter() default 0;
+
+    /**
+     * The exception types that will trigger a retry. The failure and its causes are checked.
+     */
+    Class<? extends Throwable>[] retryOn() default {Exception.class};
+}
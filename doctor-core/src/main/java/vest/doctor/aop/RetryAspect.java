@@ -0,0 +1,391 @@
+package vest.doctor.aop;
+
+import vest.doctor.AnnotationData;
+import vest.doctor.reactive.Rx;
+import vest.doctor.scheduled.Interval;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The aspect that implements {@link Retry} methods. Automatically provided by the
+ * {@link vest.doctor.ProviderRegistry}.
+ */
+public final class RetryAspect implements Aspect {
+
+    /**
+     * Retry statistics for a method.
+     *
+     * @param invocations the number of times the retried method was called
+     * @param retries     the number of retries executed
+     * @param recovered   the number of calls that succeeded after at least one retry
+     * @param exhausted   the number of calls that failed after all attempts were used
+     */
+    public record Stats(long invocations, long retries, long recovered, long exhausted) {
+    }
+
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final Map<MethodKey, Policy> policies = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public RetryAspect(Supplier<ScheduledExecutorService> scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Object execute(MethodInvocation methodInvocation) {
+        Policy policy = policies.computeIfAbsent(MethodKey.of(methodInvocation), key -> newPolicy(key, methodInvocation));
+        policy.counters.invocations.increment();
+        return switch (policy.mode) {
+            case SYNCHRONOUS -> retrySync(methodInvocation, policy);
+            case FUTURE -> {
+                CompletableFuture<Object> future = new CompletableFuture<>();
+                attemptAsync(methodInvocation, policy, 1, future);
+                yield future;
+            }
+            case PUBLISHER -> new RetryPublisher(methodInvocation, policy);
+            case RX -> Rx.from(new RetryPublisher(methodInvocation, policy));
+        };
+    }
+
+    /**
+     * Get the retry statistics for a method.
+     *
+     * @param name the name of the retried method, see {@link Retry#name()}
+     * @return the statistics, or empty if no method with the name has been called yet
+     */
+    public Optional<Stats> stats(String name) {
+        return Optional.ofNullable(counters.get(name)).map(Counters::snapshot);
+    }
+
+    /**
+     * Get the retry statistics for all methods that have been called.
+     *
+     * @return the statistics keyed by name, see {@link Retry#name()}
+     */
+    public Map<String, Stats> stats() {
+        return counters.entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    private Policy newPolicy(MethodKey key, MethodInvocation methodInvocation) {
+        AnnotationData config = methodInvocation.annotationMetadata()
+                .findOne(Retry.class)
+                .orElseThrow(() -> new IllegalStateException("missing @Retry on " + key.defaultName()));
+        String name = config.stringValue("name");
+        if (name.isEmpty()) {
+            name = key.defaultName();
+        }
+        int maxAttempts = config.intValue("maxAttempts");
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("invalid maxAttempts for @Retry on " + name + ": must be greater than 0");
+        }
+        double jitter = config.doubleValue("jitter");
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("invalid jitter for @Retry on " + name + ": must be between 0 and 1");
+        }
+        Class<?> returnType = AspectUtils.returnType(methodInvocation);
+        Mode mode;
+        if (AspectUtils.isAsync(methodInvocation)) {
+            mode = Mode.FUTURE;
+        } else if (returnType == Flow.Publisher.class) {
+            mode = Mode.PUBLISHER;
+        } else if (returnType == Rx.class) {
+            mode = Mode.RX;
+        } else if (Flow.Publisher.class.isAssignableFrom(returnType)) {
+            throw new IllegalArgumentException("invalid return type for @Retry on " + name + ": publishers must be declared as "
+                    + Flow.Publisher.class.getCanonicalName() + " or " + Rx.class.getCanonicalName());
+        } else {
+            mode = Mode.SYNCHRONOUS;
+        }
+        return new Policy(mode,
+                maxAttempts,
+                toNanos(config.stringValue("backoff")),
+                config.doubleValue("multiplier"),
+                toNanos(config.stringValue("maxDelay")),
+                jitter,
+                config.classArrayValue("retryOn"),
+                counters.computeIfAbsent(name, n -> new Counters()));
+    }
+
+    private static Object retrySync(MethodInvocation methodInvocation, Policy policy) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = methodInvocation.next();
+                if (attempt > 1) {
+                    policy.counters.recovered.increment();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= policy.maxAttempts || !policy.retryable(e)) {
+                    policy.counters.exhausted.increment();
+                    throw e;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(policy.delayNanos(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    policy.counters.exhausted.increment();
+                    throw e;
+                }
+                policy.counters.retries.increment();
+            }
+        }
+    }
+
+    private void attemptAsync(MethodInvocation methodInvocation, Policy policy, int attempt, CompletableFuture<Object> future) {
+        CompletionStage<?> stage;
+        try {
+            stage = methodInvocation.next();
+        } catch (Throwable t) {
+            stage = CompletableFuture.failedFuture(t);
+        }
+        if (stage == null) {
+            stage = CompletableFuture.completedFuture(null);
+        }
+        stage.whenComplete((value, error) -> {
+            if (error == null) {
+                if (attempt > 1) {
+                    policy.counters.recovered.increment();
+                }
+                future.complete(value);
+            } else {
+                Throwable cause = AspectUtils.unwrap(error);
+                if (attempt < policy.maxAttempts && policy.retryable(error) && !future.isDone()) {
+                    policy.counters.retries.increment();
+                    try {
+                        scheduler.get().schedule(() -> attemptAsync(methodInvocation, policy, attempt + 1, future), policy.delayNanos(attempt), TimeUnit.NANOSECONDS);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        cause.addSuppressed(e);
+                    }
+                }
+                policy.counters.exhausted.increment();
+                future.completeExceptionally(cause);
+            }
+        });
+    }
+
+    private static long toNanos(String intervalString) {
+        Interval interval = new Interval(intervalString);
+        return interval.getUnit().toNanos(interval.getMagnitude());
+    }
+
+    private enum Mode {
+        SYNCHRONOUS, FUTURE, PUBLISHER, RX
+    }
+
+    private record Policy(Mode mode,
+                          int maxAttempts,
+                          long backoffNanos,
+                          double multiplier,
+                          long maxDelayNanos,
+                          double jitter,
+                          List<Class<?>> retryOn,
+                          Counters counters) {
+
+        boolean retryable(Throwable error) {
+            for (Throwable t = error; t != null; t = t.getCause()) {
+                for (Class<?> type : retryOn) {
+                    if (type.isInstance(t)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        long delayNanos(int attempt) {
+            double delay = Math.min(maxDelayNanos, backoffNanos * Math.pow(multiplier, attempt - 1));
+            if (jitter > 0) {
+                delay += delay * jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+            }
+            return Math.max(0, Math.min(maxDelayNanos, (long) delay));
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder recovered = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+
+        Stats snapshot() {
+            return new Stats(invocations.sum(), retries.sum(), recovered.sum(), exhausted.sum());
+        }
+    }
+
+    /**
+     * Re-subscribes to a freshly invoked publisher when the current one signals a retryable error. Each attempt
+     * gets its own subscriber, and outstanding demand is carried over to each new subscription; items emitted before
+     * the error are not replayed or de-duplicated, the new publisher is simply subscribed to.
+     */
+    private final class RetryPublisher implements Flow.Publisher<Object> {
+        private final MethodInvocation methodInvocation;
+        private final Policy policy;
+
+        RetryPublisher(MethodInvocation methodInvocation, Policy policy) {
+            this.methodInvocation = methodInvocation;
+            this.policy = policy;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+            RetrySubscription subscription = new RetrySubscription(subscriber);
+            subscriber.onSubscribe(subscription);
+            subscription.attempt();
+        }
+
+        private final class RetrySubscription implements Flow.Subscription {
+            private final Flow.Subscriber<? super Object> downstream;
+            private volatile boolean cancelled;
+            // guarded by synchronizing on this
+            private long requested;
+            private int attempts;
+            private AttemptSubscriber current;
+
+            RetrySubscription(Flow.Subscriber<? super Object> downstream) {
+                this.downstream = downstream;
+            }
+
+            void attempt() {
+                if (cancelled) {
+                    return;
+                }
+                AttemptSubscriber subscriber;
+                synchronized (this) {
+                    subscriber = new AttemptSubscriber(++attempts);
+                    current = subscriber;
+                }
+                Flow.Publisher<Object> publisher;
+                try {
+                    publisher = methodInvocation.next();
+                } catch (Throwable t) {
+                    subscriber.onError(t);
+                    return;
+                }
+                // subscribing through Rx triggers the on-subscribe hooks of Rx compositions
+                Rx.from(publisher).chain(subscriber).subscribe(0);
+            }
+
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    downstream.onError(new IllegalArgumentException("non-positive subscription request"));
+                    return;
+                }
+                Flow.Subscription s;
+                synchronized (this) {
+                    requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                    s = current != null ? current.upstream : null;
+                }
+                if (s != null) {
+                    s.request(n);
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription s;
+                synchronized (this) {
+                    s = current != null ? current.upstream : null;
+                }
+                if (s != null) {
+                    s.cancel();
+                }
+            }
+
+            private synchronized boolean isCurrent(AttemptSubscriber subscriber) {
+                return current == subscriber;
+            }
+
+            private final class AttemptSubscriber implements Flow.Subscriber<Object> {
+                private final int attempt;
+                // guarded by synchronizing on the retry subscription
+                private Flow.Subscription upstream;
+
+                AttemptSubscriber(int attempt) {
+                    this.attempt = attempt;
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    long r;
+                    synchronized (RetrySubscription.this) {
+                        if (current != this || upstream != null) {
+                            r = -1;
+                        } else {
+                            upstream = subscription;
+                            r = requested;
+                        }
+                    }
+                    if (r < 0 || cancelled) {
+                        subscription.cancel();
+                    } else if (r > 0) {
+                        subscription.request(r);
+                    }
+                }
+
+                @Override
+                public void onNext(Object item) {
+                    synchronized (RetrySubscription.this) {
+                        if (current != this) {
+                            return;
+                        }
+                        if (requested != Long.MAX_VALUE) {
+                            requested--;
+                        }
+                    }
+                    downstream.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    synchronized (RetrySubscription.this) {
+                        if (current != this) {
+                            return;
+                        }
+                        current = null;
+                    }
+                    if (!cancelled && attempt < policy.maxAttempts && policy.retryable(throwable)) {
+                        policy.counters.retries.increment();
+                        try {
+                            scheduler.get().schedule(RetrySubscription.this::attempt, policy.delayNanos(attempt), TimeUnit.NANOSECONDS);
+                            return;
+                        } catch (RejectedExecutionException e) {
+                            throwable.addSuppressed(e);
+                        }
+                    }
+                    policy.counters.exhausted.increment();
+                    downstream.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    if (!isCurrent(this)) {
+                        return;
+                    }
+                    if (attempt > 1) {
+                        policy.counters.recovered.increment();
+                    }
+                    downstream.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package vest.doctor.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * De-duplicates concurrent calls to a method. While a call is in progress, other calls with equal arguments
+ * (compared using {@link Object#equals(Object)}) do not execute the method, they wait for and share the result
+ * of the call in progress, including any exception it throws. Once the call completes, the next call will
+ * execute the method again; use {@link CacheResult} to also keep the result.
+ * <p>
+ * Methods returning a {@link java.util.concurrent.CompletableFuture} (or {@link java.util.concurrent.CompletionStage})
+ * share the future without blocking, and are considered in progress until the future completes. All other
+ * duplicate calls block until the call in progress returns.
+ *
+ * @see SingleFlightAspect
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Aspects(SingleFlightAspect.class)
+public @interface SingleFlight {
+
+    /**
+     * The name used to report the suppressed call count. Defaults to <code>[SimpleClassName].[methodName]</code>.
+     */
+    String name() default "";
+}
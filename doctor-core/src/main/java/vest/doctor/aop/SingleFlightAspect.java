@@ -0,0 +1,97 @@
+package vest.doctor.aop;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * The aspect that implements {@link SingleFlight} methods. Automatically provided by the
+ * {@link vest.doctor.ProviderRegistry}.
+ */
+public final class SingleFlightAspect implements Aspect {
+
+    private final Map<MethodKey, Flights> flights = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> suppressed = new ConcurrentHashMap<>();
+
+    @Override
+    public Object execute(MethodInvocation methodInvocation) {
+        Flights f = flights.computeIfAbsent(MethodKey.of(methodInvocation), key -> newFlights(key, methodInvocation));
+        List<Object> key = AspectUtils.argumentKey(methodInvocation);
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = f.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            f.suppressed.increment();
+            return f.async ? existing.copy() : AspectUtils.await(existing, "error waiting on in-flight call");
+        }
+        if (f.async) {
+            CompletionStage<?> stage;
+            try {
+                stage = methodInvocation.next();
+            } catch (Throwable t) {
+                stage = CompletableFuture.failedFuture(t);
+            }
+            if (stage == null) {
+                stage = CompletableFuture.completedFuture(null);
+            }
+            stage.whenComplete((value, error) -> {
+                f.inFlight.remove(key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(AspectUtils.unwrap(error));
+                } else {
+                    flight.complete(value);
+                }
+            });
+            return flight.copy();
+        }
+        try {
+            Object result = methodInvocation.next();
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            f.inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get the number of calls that were suppressed because an identical call was in progress.
+     *
+     * @param name the name of the method, see {@link SingleFlight#name()}
+     * @return the number of suppressed calls, 0 if no method with the name has been called yet
+     */
+    public long suppressed(String name) {
+        LongAdder count = suppressed.get(name);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Get the number of suppressed calls for all methods that have been called.
+     *
+     * @return the suppressed call counts keyed by name, see {@link SingleFlight#name()}
+     */
+    public Map<String, Long> suppressed() {
+        return suppressed.entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    private Flights newFlights(MethodKey key, MethodInvocation methodInvocation) {
+        String name = methodInvocation.annotationMetadata()
+                .findOne(SingleFlight.class)
+                .map(config -> config.stringValue("name"))
+                .filter(n -> !n.isEmpty())
+                .orElse(key.defaultName());
+        boolean async = AspectUtils.isAsync(methodInvocation);
+        return new Flights(async, new ConcurrentHashMap<>(), suppressed.computeIfAbsent(name, n -> new LongAdder()));
+    }
+
+    private record Flights(boolean async, Map<List<Object>, CompletableFuture<Object>> inFlight, LongAdder suppressed) {
+    }
+}
@@ -0,0 +1,219 @@
+package vest.doctor.aop;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache using W-TinyLFU eviction. New entries enter a small LRU admission window; entries falling out
+ * of the window compete with the least recently used entry of the main LRU region, and whichever has the higher
+ * estimated frequency (see {@link FrequencySketch}) is kept. All policy operations are O(1).
+ * <p>
+ * Lookups never block: the policy is updated on a hit only when its lock is uncontended, otherwise the access
+ * is simply not recorded. Likewise an expired entry found by a lookup is removed only if the lock is free;
+ * otherwise it is left for a later lookup or for the writer's eviction to clean up.
+ */
+final class TinyLfuCache<K, V> {
+
+    static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private boolean main;
+
+        private Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        V value() {
+            return value;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final int windowMax;
+    private final int mainMax;
+    private final long ttlNanos;
+    private final Node<K, V> window = sentinel();
+    private final Node<K, V> main = sentinel();
+    private int windowSize;
+    private int mainSize;
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+
+    TinyLfuCache(int maxSize, long ttlNanos) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("cache size must be greater than 0");
+        }
+        this.windowMax = Math.max(1, maxSize / 100);
+        this.mainMax = maxSize - windowMax;
+        this.ttlNanos = ttlNanos;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    /**
+     * Get the cached node for the key, recording a hit or miss.
+     *
+     * @return the node, or null if the key is not cached or has expired
+     */
+    Node<K, V> get(K key) {
+        Node<K, V> node = peek(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key);
+                if (node.prev != null && data.get(key) == node) {
+                    unlink(node);
+                    linkLast(node.main ? main : window, node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Get the cached node for the key without recording the access.
+     */
+    Node<K, V> peek(K key) {
+        Node<K, V> node = data.get(key);
+        if (node != null && ttlNanos > 0 && node.expiresAt - System.nanoTime() <= 0) {
+            if (lock.tryLock()) {
+                try {
+                    unmap(key, node);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        }
+        return node;
+    }
+
+    void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> previous = data.put(key, node);
+            if (previous != null) {
+                detach(previous);
+            }
+            linkLast(window, node);
+            windowSize++;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the key only if it is still mapped to the given value.
+     */
+    void invalidate(K key, V value) {
+        Node<K, V> node = data.get(key);
+        if (node != null && node.value == value) {
+            remove(key, node);
+        }
+    }
+
+    void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            window.prev = window.next = window;
+            main.prev = main.next = main;
+            windowSize = mainSize = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return data.size();
+    }
+
+    private void remove(K key, Node<K, V> node) {
+        lock.lock();
+        try {
+            unmap(key, node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unmap(K key, Node<K, V> node) {
+        if (data.remove(key, node)) {
+            detach(node);
+        }
+    }
+
+    private void evict() {
+        while (windowSize > windowMax) {
+            Node<K, V> candidate = window.next;
+            unlink(candidate);
+            windowSize--;
+            if (mainSize < mainMax) {
+                candidate.main = true;
+                linkLast(main, candidate);
+                mainSize++;
+                continue;
+            }
+            Node<K, V> victim = main.next;
+            if (victim != main && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                unlink(victim);
+                data.remove(victim.key, victim);
+                candidate.main = true;
+                linkLast(main, candidate);
+            } else {
+                data.remove(candidate.key, candidate);
+            }
+            evictions.increment();
+        }
+    }
+
+    private void detach(Node<K, V> node) {
+        if (node.prev != null) {
+            unlink(node);
+            if (node.main) {
+                mainSize--;
+            } else {
+                windowSize--;
+            }
+        }
+    }
+
+    private static <K, V> Node<K, V> sentinel() {
+        Node<K, V> sentinel = new Node<>(null, null, 0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    private static <K, V> void linkLast(Node<K, V> list, Node<K, V> node) {
+        node.prev = list.prev;
+        node.next = list;
+        list.prev.next = node;
+        list.prev = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+}
@@ -405,10 +405,11 @@ public final class ProcessorUtils {
         Element annotationElement = annotationMirror.getAnnotationType().asElement();
         sb.append(annotationElement.asType());
         sb.append(".class,");
-        if (!annotationMirror.getElementValues().isEmpty()) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = context.processingEnvironment().getElementUtils().getElementValuesWithDefaults(annotationMirror);
+        if (!values.isEmpty()) {
             sb.append("Map.ofEntries(");
             List<String> entries = new LinkedList<>();
-            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : context.processingEnvironment().getElementUtils().getElementValuesWithDefaults(annotationMirror).entrySet()) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
                 String name = entry.getKey().getSimpleName().toString();
                 String valueString = annotationValueLiteral(context, entry.getValue());
                 entries.add("Map.entry(\"" + name + "\", " + valueString + ")");
@@ -6,10 +6,17 @@ import vest.doctor.runtime.RuntimeUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -18,6 +25,14 @@ import java.util.stream.Collectors;
  * A configuration facade implementation that delegates property requests to
  * a list of {@link ConfigurationSource configuration sources}. The first non-null
  * property value returned by a source is used as the property value.
+ * <p>
+ * Property values are read from the sources into an immutable snapshot, with placeholders already resolved,
+ * when the facade is first used and on every {@link #reload()} (or {@link #addSource(ConfigurationSource)}).
+ * Only the names each source lists in {@link ConfigurationSource#propertyNames()} are snapshotted; a property
+ * missing from the snapshot is looked up from the sources directly, so properties added after the snapshot was
+ * taken (e.g. with {@link System#setProperty(String, String)}) and properties a source answers without listing
+ * are still found. Changes to snapshotted properties are not visible until the next reload. Each new snapshot
+ * increments the {@link #version()}.
  */
 public class CompositeConfigurationFacade implements ConfigurationFacade {
 
@@ -56,6 +71,8 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
     }
 
     private final List<ConfigurationSource> sources;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot snapshot;
 
     /**
      * Initialize a new composite configuration facade with an empty configuration source list.
@@ -76,6 +93,7 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
     @Override
     public ConfigurationFacade addSource(ConfigurationSource source) {
         sources.add(source);
+        snapshot = null;
         return this;
     }
 
@@ -96,13 +114,16 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public <T> T get(String propertyName, T defaultValue, Function<String, T> converter) {
-        for (ConfigurationSource source : sources) {
-            String s = source.get(propertyName);
-            if (s != null) {
-                return converter.apply(resolvePlaceholders(s));
-            }
+        Value value = value(propertyName);
+        if (value == null) {
+            return defaultValue;
         }
-        return defaultValue;
+        return converter.apply(value.resolved());
+    }
+
+    @Override
+    public long version() {
+        return snapshot().version;
     }
 
     /**
@@ -166,21 +187,23 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
     }
 
     private <C extends Collection<T>, T> C getCol(String propertyName, C defaultValue, Function<String, T> converter, Supplier<C> supplier) {
-        for (ConfigurationSource source : sources) {
-            String list = source.get(propertyName);
-            if (list != null) {
-                return RuntimeUtils.split(list, ConfigurationFacade.LIST_DELIMITER)
-                        .stream()
-                        .map(this::resolvePlaceholders)
-                        .map(converter)
-                        .collect(Collectors.toCollection(supplier));
-            }
+        Value value = value(propertyName);
+        if (value == null) {
+            return defaultValue;
         }
-        return defaultValue;
+        return RuntimeUtils.split(value.raw, ConfigurationFacade.LIST_DELIMITER)
+                .stream()
+                .map(this::resolvePlaceholders)
+                .map(converter)
+                .collect(Collectors.toCollection(supplier));
     }
 
     @Override
     public String resolvePlaceholders(String value) {
+        return resolvePlaceholders(value, this::get);
+    }
+
+    private static String resolvePlaceholders(String value, BiFunction<String, String, String> lookup) {
         if (value == null || value.isEmpty()) {
             return null;
         }
@@ -206,7 +229,7 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
             String subName = split[0];
             String defaultValue = split[1];
 
-            String subValue = get(subName, defaultValue);
+            String subValue = lookup.apply(subName, defaultValue);
             if (subValue == null) {
                 throw new IllegalArgumentException("missing interpolation value for property [" + subName + "] while trying to resolve placeholders in [" + value + "]");
             }
@@ -228,18 +251,7 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public Collection<String> getSubGroups(String prefix, String terminal) {
-        return sources.stream()
-                .map(ConfigurationSource::propertyNames)
-                .flatMap(Collection::stream)
-                .filter(name -> name.startsWith(prefix))
-                .map(name -> {
-                    int start = name.indexOf(prefix) + prefix.length();
-                    int end = name.indexOf(terminal, start + 1);
-                    return end > 0
-                            ? name.substring(start, end)
-                            : name.substring(start);
-                })
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return snapshot().trie.getSubGroups(prefix, terminal);
     }
 
     @Override
@@ -249,17 +261,48 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public Collection<String> propertyNames() {
-        return sources.stream()
-                .map(ConfigurationSource::propertyNames)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return snapshot().values.keySet();
     }
 
     @Override
-    public void reload() {
+    public Collection<String> propertyNames(String prefix) {
+        return snapshot().trie.propertyNames(prefix);
+    }
+
+    @Override
+    public synchronized void reload() {
         for (ConfigurationSource source : sources) {
             source.reload();
         }
+        snapshot = buildSnapshot();
+    }
+
+    @Override
+    public synchronized Set<String> reload(ConfigurationSource source) {
+        if (!sources.contains(source)) {
+            throw new IllegalArgumentException("unknown configuration source: " + source);
+        }
+        Snapshot previous = snapshot();
+        source.reload();
+        Snapshot next = buildSnapshot();
+        snapshot = next;
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Value> entry : next.values.entrySet()) {
+            if (!entry.getValue().equals(previous.values.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : previous.values.keySet()) {
+            if (!next.values.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public List<ConfigurationSource> sources() {
+        return Collections.unmodifiableList(sources);
     }
 
     @Override
@@ -277,6 +320,59 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
         return sb.toString();
     }
 
+    private Value value(String propertyName) {
+        Value value = snapshot().values.get(propertyName);
+        if (value != null) {
+            return value;
+        }
+        // not listed by any source when the snapshot was taken, ask the sources directly
+        for (ConfigurationSource source : sources) {
+            String raw = source.get(propertyName);
+            if (raw != null) {
+                try {
+                    return new Value(raw, resolvePlaceholders(raw, this::get), null);
+                } catch (IllegalArgumentException e) {
+                    return new Value(raw, null, e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = buildSnapshot();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    private Snapshot buildSnapshot() {
+        Map<String, String> raw = new LinkedHashMap<>();
+        for (ConfigurationSource source : sources) {
+            for (String name : source.propertyNames()) {
+                if (!raw.containsKey(name)) {
+                    String value = source.get(name);
+                    if (value != null) {
+                        raw.put(name, value);
+                    }
+                }
+            }
+        }
+        SnapshotResolver resolver = new SnapshotResolver(raw);
+        Map<String, Value> values = new LinkedHashMap<>(raw.size() * 2);
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            values.put(entry.getKey(), resolver.value(entry.getKey()));
+        }
+        return new Snapshot(Collections.unmodifiableMap(values), new PropertyTrie(values.keySet()), versions.incrementAndGet());
+    }
+
     private static String[] splitColon(String str) {
         int i = str.indexOf(':');
         if (i < 0) {
@@ -285,4 +381,57 @@ public class CompositeConfigurationFacade implements ConfigurationFacade {
             return new String[]{str.substring(0, i), str.substring(i + 1)};
         }
     }
+
+    private record Snapshot(Map<String, Value> values, PropertyTrie trie, long version) {
+    }
+
+    private record Value(String raw, String value, String error) {
+
+        String resolved() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Resolves the placeholders of the raw property values, resolving referenced properties first.
+     */
+    private static final class SnapshotResolver {
+        private final Map<String, String> raw;
+        private final Map<String, Value> resolved = new HashMap<>();
+        private final Set<String> resolving = new HashSet<>();
+
+        SnapshotResolver(Map<String, String> raw) {
+            this.raw = raw;
+        }
+
+        Value value(String name) {
+            Value value = resolved.get(name);
+            if (value != null) {
+                return value;
+            }
+            if (!resolving.add(name)) {
+                throw new IllegalArgumentException("circular placeholder reference to property [" + name + "]");
+            }
+            String rawValue = raw.get(name);
+            try {
+                value = new Value(rawValue, resolvePlaceholders(rawValue, this::lookup), null);
+            } catch (IllegalArgumentException e) {
+                value = new Value(rawValue, null, e.getMessage());
+            } finally {
+                resolving.remove(name);
+            }
+            resolved.put(name, value);
+            return value;
+        }
+
+        private String lookup(String name, String defaultValue) {
+            if (!raw.containsKey(name)) {
+                return defaultValue;
+            }
+            return value(name).resolved();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package vest.doctor.conf;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
@@ -185,8 +186,57 @@ public interface ConfigurationFacade {
      */
     Collection<String> propertyNames();
 
+    /**
+     * Get a list of the property names that start with the given prefix. By default, this filters
+     * {@link #propertyNames()}.
+     *
+     * @param prefix the property name prefix
+     * @return a collection of property names
+     */
+    default Collection<String> propertyNames(String prefix) {
+        return propertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .toList();
+    }
+
+    /**
+     * Get the version of the configuration values. The version changes every time the values are reloaded, so
+     * comparing it with a previously seen version is a cheap way to check whether cached values may be stale.
+     * Facades that do not track versions return a constant.
+     *
+     * @return the configuration version
+     */
+    default long version() {
+        return 0L;
+    }
+
     /**
      * Reload this configuration facade, calling {@link ConfigurationSource#reload()} on registered sources.
      */
     void reload();
+
+    /**
+     * Reload a single configuration source, leaving the other sources as they are. Facades that can not reload
+     * individual sources fall back to a full {@link #reload()}, reporting every property name known before or
+     * after the reload as changed.
+     *
+     * @param source the source to reload, must be one of the {@link #sources()}
+     * @return the names of the properties whose values were added, removed, or changed by the reload
+     */
+    default Set<String> reload(ConfigurationSource source) {
+        Set<String> names = new HashSet<>(propertyNames());
+        reload();
+        names.addAll(propertyNames());
+        return names;
+    }
+
+    /**
+     * Get the configuration sources of this facade, in priority order. Facades that do not expose their sources
+     * return an empty list.
+     *
+     * @return the configuration sources
+     */
+    default List<ConfigurationSource> sources() {
+        return List.of();
+    }
 }
@@ -16,7 +16,9 @@ public interface ConfigurationSource {
     String get(String propertyName);
 
     /**
-     * The names of all properties at this level of the configuration source.
+     * The names of all properties at this level of the configuration source. The listed properties are the ones
+     * a {@link CompositeConfigurationFacade} snapshots and enumerates; properties that are not listed are still
+     * looked up with {@link #get(String)} when they are requested by name.
      *
      * @return a collection of property names
      */
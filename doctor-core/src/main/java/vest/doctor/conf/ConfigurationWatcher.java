@@ -0,0 +1,162 @@
+package vest.doctor.conf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Watches the local files backing the {@link StructuredConfigurationSource structured sources} of a
+ * {@link ConfigurationFacade} and reloads them when they change.
+ * <p>
+ * File system events are debounced per source: a reload happens once the file has been quiet for the debounce
+ * period, so an editor writing a file in several steps triggers a single reload. Only the changed source is
+ * re-parsed (see {@link ConfigurationFacade#reload(ConfigurationSource)}), and the listener is notified with the
+ * names of the properties that actually changed. A file that fails to parse leaves the previous properties in place.
+ * <p>
+ * Sources on the classpath or served by http(s) endpoints are not watched.
+ */
+public final class ConfigurationWatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationWatcher.class);
+
+    private final ConfigurationFacade configuration;
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final long debounceNanos;
+    private final BiConsumer<ConfigurationSource, Set<String>> listener;
+    // directory -> file name -> sources backed by that file
+    private final Map<Path, Map<Path, List<ConfigurationSource>>> watched = new HashMap<>();
+    private final Map<ConfigurationSource, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final WatchService watchService;
+
+    /**
+     * Create a new watcher. A background thread is started only if the configuration has at least one
+     * file backed source.
+     *
+     * @param configuration the configuration to watch
+     * @param scheduler     the scheduler used to debounce file changes and run the reloads
+     * @param debounce      the time a file must be unchanged before it is reloaded
+     * @param unit          the unit of the debounce time
+     * @param listener      notified after a source has been reloaded, with the names of the changed properties;
+     *                      not called when a reload changed nothing
+     */
+    public ConfigurationWatcher(ConfigurationFacade configuration, Supplier<ScheduledExecutorService> scheduler, long debounce, TimeUnit unit, BiConsumer<ConfigurationSource, Set<String>> listener) {
+        this.configuration = configuration;
+        this.scheduler = scheduler;
+        this.debounceNanos = unit.toNanos(debounce);
+        this.listener = listener;
+        for (ConfigurationSource source : configuration.sources()) {
+            if (source instanceof StructuredConfigurationSource structured) {
+                structured.location().localPath()
+                        .map(Path::toAbsolutePath)
+                        .filter(path -> path.getParent() != null)
+                        .ifPresent(path -> watched.computeIfAbsent(path.getParent(), dir -> new HashMap<>())
+                                .computeIfAbsent(path.getFileName(), file -> new ArrayList<>(1))
+                                .add(source));
+            }
+        }
+        if (watched.isEmpty()) {
+            this.watchService = null;
+            return;
+        }
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            for (Path dir : watched.keySet()) {
+                dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("error watching configuration files in " + watched.keySet(), e);
+        }
+        Thread thread = new Thread(this::run, "doctor-configuration-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Get the directories being watched for changes.
+     */
+    public Set<Path> directories() {
+        return watched.keySet();
+    }
+
+    @Override
+    public void close() {
+        pending.values().forEach(future -> future.cancel(false));
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("error closing configuration watch service", e);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+            Map<Path, List<ConfigurationSource>> files = watched.getOrDefault((Path) key.watchable(), Map.of());
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    files.values().forEach(sources -> sources.forEach(this::changed));
+                } else {
+                    files.getOrDefault((Path) event.context(), List.of()).forEach(this::changed);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    private void changed(ConfigurationSource source) {
+        try {
+            pending.compute(source, (s, previous) -> {
+                if (previous != null) {
+                    previous.cancel(false);
+                }
+                return scheduler.get().schedule(() -> reload(s), debounceNanos, TimeUnit.NANOSECONDS);
+            });
+        } catch (Throwable t) {
+            log.warn("unable to schedule reload of configuration source {}", source, t);
+        }
+    }
+
+    private void reload(ConfigurationSource source) {
+        Set<String> changed;
+        try {
+            changed = configuration.reload(source);
+        } catch (Throwable t) {
+            log.warn("error reloading configuration source {}, keeping the previous properties", source, t);
+            return;
+        }
+        if (!changed.isEmpty()) {
+            log.info("reloaded configuration source {}, changed properties: {}", source, changed);
+            listener.accept(source, changed);
+        }
+    }
+}
@@ -3,9 +3,10 @@ package vest.doctor.conf;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Supports the {@link ConfigurationFacade#prefix(String)} method.
@@ -13,6 +14,8 @@ import java.util.stream.Collectors;
 public class PrefixedConfigurationFacade implements ConfigurationFacade {
     private final String prefix;
     private final ConfigurationFacade delegate;
+    // prefixed property names, property names requested through a facade are typically constants
+    private final Map<String, String> prefixedNames = new ConcurrentHashMap<>();
 
     public PrefixedConfigurationFacade(String prefix, ConfigurationFacade delegate) {
         this.prefix = prefix;
@@ -26,52 +29,52 @@ public class PrefixedConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public String get(String propertyName) {
-        return delegate.get(prefix + propertyName);
+        return delegate.get(name(propertyName));
     }
 
     @Override
     public String get(String propertyName, String defaultValue) {
-        return delegate.get(prefix + propertyName, defaultValue);
+        return delegate.get(name(propertyName), defaultValue);
     }
 
     @Override
     public <T> T get(String propertyName, Function<String, T> converter) {
-        return delegate.get(prefix + propertyName, converter);
+        return delegate.get(name(propertyName), converter);
     }
 
     @Override
     public <T> T get(String propertyName, T defaultValue, Function<String, T> converter) {
-        return delegate.get(prefix + propertyName, defaultValue, converter);
+        return delegate.get(name(propertyName), defaultValue, converter);
     }
 
     @Override
     public List<String> getList(String propertyName) {
-        return delegate.getList(prefix + propertyName);
+        return delegate.getList(name(propertyName));
     }
 
     @Override
     public <T> List<T> getList(String propertyName, Function<String, T> converter) {
-        return delegate.getList(prefix + propertyName, converter);
+        return delegate.getList(name(propertyName), converter);
     }
 
     @Override
     public <T> List<T> getList(String propertyName, List<T> defaultValue, Function<String, T> converter) {
-        return delegate.getList(prefix + propertyName, defaultValue, converter);
+        return delegate.getList(name(propertyName), defaultValue, converter);
     }
 
     @Override
     public Set<String> getSet(String propertyName) {
-        return delegate.getSet(prefix + propertyName);
+        return delegate.getSet(name(propertyName));
     }
 
     @Override
     public <T> Set<T> getSet(String propertyName, Function<String, T> converter) {
-        return delegate.getSet(prefix + propertyName, converter);
+        return delegate.getSet(name(propertyName), converter);
     }
 
     @Override
     public <T> Set<T> getSet(String propertyName, Set<T> defaultValue, Function<String, T> converter) {
-        return delegate.getSet(prefix + propertyName, defaultValue, converter);
+        return delegate.getSet(name(propertyName), defaultValue, converter);
     }
 
     @Override
@@ -81,12 +84,12 @@ public class PrefixedConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public Collection<String> getSubGroups(String prefix) {
-        return delegate.getSubGroups(prefix + prefix);
+        return delegate.getSubGroups(this.prefix + prefix);
     }
 
     @Override
     public Collection<String> getSubGroups(String prefix, String terminal) {
-        return delegate.getSubGroups(prefix + prefix, terminal);
+        return delegate.getSubGroups(this.prefix + prefix, terminal);
     }
 
     @Override
@@ -96,10 +99,17 @@ public class PrefixedConfigurationFacade implements ConfigurationFacade {
 
     @Override
     public Collection<String> propertyNames() {
-        return delegate.propertyNames()
-                .stream()
-                .filter(name -> name.startsWith(prefix))
-                .collect(Collectors.toList());
+        return delegate.propertyNames(prefix);
+    }
+
+    @Override
+    public Collection<String> propertyNames(String prefix) {
+        return delegate.propertyNames(this.prefix + prefix);
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
     }
 
     @Override
@@ -107,6 +117,15 @@ public class PrefixedConfigurationFacade implements ConfigurationFacade {
         delegate.reload();
     }
 
+    private String name(String propertyName) {
+        String name = prefixedNames.get(propertyName);
+        if (name == null) {
+            name = prefix + propertyName;
+            prefixedNames.put(propertyName, name);
+        }
+        return name;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
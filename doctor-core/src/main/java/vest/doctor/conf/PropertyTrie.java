@@ -0,0 +1,135 @@
+package vest.doctor.conf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of property names by their {@link ConfigurationFacade#NESTING_DELIMITER} separated path segments. Supports
+ * listing the property names and sub-groups under a prefix at a cost proportional to the result rather than the
+ * total number of properties.
+ */
+final class PropertyTrie {
+
+    private static final String DELIMITER = String.valueOf(ConfigurationFacade.NESTING_DELIMITER);
+
+    private final Node root = new Node();
+
+    PropertyTrie(Collection<String> propertyNames) {
+        for (String name : propertyNames) {
+            Node node = root;
+            int start = 0;
+            int end;
+            while ((end = name.indexOf(ConfigurationFacade.NESTING_DELIMITER, start)) >= 0) {
+                node = node.child(name.substring(start, end));
+                start = end + 1;
+            }
+            node = node.child(name.substring(start));
+            node.name = name;
+        }
+    }
+
+    /**
+     * Get the property names starting with the given prefix, grouped by path.
+     */
+    List<String> propertyNames(String prefix) {
+        List<String> names = new ArrayList<>();
+        for (Node node : matching(prefix)) {
+            node.collect(names);
+        }
+        return names;
+    }
+
+    /**
+     * Get the sub-groups under the prefix, see {@link ConfigurationFacade#getSubGroups(String, String)}.
+     */
+    Set<String> getSubGroups(String prefix, String terminal) {
+        Set<String> groups = new LinkedHashSet<>();
+        if (terminal.equals(DELIMITER) && (prefix.isEmpty() || prefix.endsWith(DELIMITER))) {
+            Node node = find(prefix, prefix.length());
+            if (node == null) {
+                return groups;
+            }
+            for (Map.Entry<String, Node> child : node.children.entrySet()) {
+                if (child.getKey().isEmpty()) {
+                    // an empty segment, e.g. 'a..b', is its own group including the next delimiter
+                    addSubGroups(groups, prefix, terminal, child.getValue());
+                } else {
+                    groups.add(child.getKey());
+                }
+            }
+        } else {
+            for (Node node : matching(prefix)) {
+                addSubGroups(groups, prefix, terminal, node);
+            }
+        }
+        return groups;
+    }
+
+    private static void addSubGroups(Set<String> groups, String prefix, String terminal, Node node) {
+        List<String> names = new ArrayList<>();
+        node.collect(names);
+        for (String name : names) {
+            int start = prefix.length();
+            int end = name.indexOf(terminal, start + 1);
+            groups.add(end > 0 ? name.substring(start, end) : name.substring(start));
+        }
+    }
+
+    // the nodes whose property names (and descendants) start with the prefix
+    private List<Node> matching(String prefix) {
+        int lastDelimiter = prefix.lastIndexOf(ConfigurationFacade.NESTING_DELIMITER);
+        Node parent = find(prefix, lastDelimiter + 1);
+        if (parent == null) {
+            return List.of();
+        }
+        String partial = prefix.substring(lastDelimiter + 1);
+        if (partial.isEmpty()) {
+            return List.of(parent);
+        }
+        List<Node> nodes = new ArrayList<>();
+        for (Map.Entry<String, Node> child : parent.children.entrySet()) {
+            if (child.getKey().startsWith(partial)) {
+                nodes.add(child.getValue());
+            }
+        }
+        return nodes;
+    }
+
+    // walk the complete segments of prefix.substring(0, length), which must be empty or end with the delimiter
+    private Node find(String prefix, int length) {
+        Node node = root;
+        int start = 0;
+        while (start < length) {
+            int end = prefix.indexOf(ConfigurationFacade.NESTING_DELIMITER, start);
+            node = node.children.get(prefix.substring(start, end));
+            if (node == null) {
+                return null;
+            }
+            start = end + 1;
+        }
+        return node;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new LinkedHashMap<>(4);
+        private String name;
+
+        Node child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+
+        void collect(List<String> names) {
+            if (name != null) {
+                names.add(name);
+            }
+            for (Node child : children.values()) {
+                child.collect(names);
+            }
+        }
+    }
+}
@@ -90,6 +90,13 @@ public class StructuredConfigurationSource implements ConfigurationSource {
         }
     }
 
+    /**
+     * Get the location of the properties file.
+     */
+    public FileLocation location() {
+        return propertyFile;
+    }
+
     @Override
     public String toString() {
         return "StructuredConfigurationSource{" + propertyFile + "}";
@@ -1,6 +1,7 @@
 package vest.doctor.conf;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
@@ -95,11 +96,31 @@ public class UnmodifiableConfigurationFacade implements ConfigurationFacade {
         return delegate.propertyNames();
     }
 
+    @Override
+    public Collection<String> propertyNames(String prefix) {
+        return delegate.propertyNames(prefix);
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
     @Override
     public void reload() {
         delegate.reload();
     }
 
+    @Override
+    public Set<String> reload(ConfigurationSource source) {
+        return delegate.reload(source);
+    }
+
+    @Override
+    public List<ConfigurationSource> sources() {
+        return Collections.unmodifiableList(delegate.sources());
+    }
+
     @Override
     public String toString() {
         return delegate.toString();
@@ -0,0 +1,56 @@
+package vest.doctor.event;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link EventConsumer} to receive events asynchronously. Instead of being called on the publishing
+ * thread, events are placed in a bounded mailbox for the consumer and delivered from the named
+ * {@link java.util.concurrent.ExecutorService}, one at a time and in the order they were published.
+ * <p>
+ * Mailbox depth and drop counts are available from {@link EventBus#mailboxStats()}.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface AsyncConsumer {
+
+    /**
+     * What to do with an event when the mailbox is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Block the publishing thread until there is room in the mailbox.
+         */
+        BLOCK,
+        /**
+         * Drop the oldest queued event to make room.
+         */
+        DROP_OLDEST,
+        /**
+         * Drop the event being published.
+         */
+        DROP_NEWEST
+    }
+
+    /**
+     * The qualifier of the provided {@link java.util.concurrent.ExecutorService} that will deliver the events.
+     */
+    String executor() default "default";
+
+    /**
+     * The maximum number of events waiting to be delivered.
+     */
+    int queueSize() default 1024;
+
+    /**
+     * The policy to apply when the mailbox is full. Note that {@link OverflowPolicy#BLOCK} will deadlock a
+     * consumer that publishes events to itself.
+     */
+    OverflowPolicy overflow() default OverflowPolicy.BLOCK;
+}
@@ -0,0 +1,13 @@
+package vest.doctor.event;
+
+import vest.doctor.aop.CircuitBreaker;
+
+/**
+ * An event published when a {@link CircuitBreaker} changes state.
+ *
+ * @param name the name of the circuit breaker
+ * @param from the previous state
+ * @param to   the new state
+ */
+public record CircuitBreakerStateChanged(String name, CircuitBreaker.State from, CircuitBreaker.State to) {
+}
@@ -0,0 +1,32 @@
+package vest.doctor.event;
+
+import vest.doctor.scheduled.Interval;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link EventConsumer} to receive coalesced events. The first event published opens a window; events
+ * published until the window closes are combined and the consumer is called once with the result when it closes.
+ * <p>
+ * By default only the latest event of the window is kept. Consumers implementing {@link CoalescingConsumer}
+ * can group events by key (each key gets its own window) and merge events instead.
+ * <p>
+ * Windows are closed from the built-in "scheduled" {@link java.util.concurrent.ScheduledExecutorService}, which is
+ * the thread the consumer will be called from unless it is also marked with {@link AsyncConsumer}.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Coalesce {
+
+    /**
+     * The length of the window. See {@link Interval} for details on the format.
+     */
+    String window();
+}
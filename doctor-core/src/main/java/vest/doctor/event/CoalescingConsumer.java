@@ -0,0 +1,29 @@
+package vest.doctor.event;
+
+/**
+ * An {@link EventConsumer} that controls how events are coalesced when it is marked with {@link Coalesce}.
+ */
+public interface CoalescingConsumer<T> extends EventConsumer<T> {
+
+    /**
+     * Get the coalescing key for an event. Events with equal keys are combined, events with different keys are
+     * delivered separately.
+     *
+     * @param event the event
+     * @return the key, null groups the event with all other events that have a null key
+     */
+    default Object coalesceKey(T event) {
+        return null;
+    }
+
+    /**
+     * Combine an event with the pending event for the same key.
+     *
+     * @param pending the event waiting to be delivered
+     * @param next    the event just published
+     * @return the event to deliver in place of both
+     */
+    default T merge(T pending, T next) {
+        return next;
+    }
+}
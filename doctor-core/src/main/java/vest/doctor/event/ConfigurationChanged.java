@@ -0,0 +1,13 @@
+package vest.doctor.event;
+
+import java.util.Set;
+
+/**
+ * An event published when a watched configuration file has changed and its properties have been reloaded.
+ *
+ * @param source       the description of the configuration source that changed
+ * @param changedNames the names of the properties that were added, removed, or changed
+ * @see vest.doctor.conf.ConfigurationWatcher
+ */
+public record ConfigurationChanged(String source, Set<String> changedNames) {
+}
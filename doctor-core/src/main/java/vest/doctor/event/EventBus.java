@@ -2,6 +2,8 @@ package vest.doctor.event;
 
 import jakarta.inject.Provider;
 
+import java.util.List;
+
 /**
  * Handle to the event system. Used to publish events to {@link EventConsumer EventConsumers},
  * and add new event consumers via {@link #addConsumer(Class, EventConsumer)}.
@@ -30,4 +32,13 @@ public interface EventBus {
      * @param provider  the provider for the event consumer
      */
     <T> void addConsumer(Class<T> eventType, Provider<? extends EventConsumer<? super T>> provider);
+
+    /**
+     * Get the delivery statistics for the consumers marked with {@link AsyncConsumer}.
+     *
+     * @return the statistics for each asynchronous consumer
+     */
+    default List<MailboxStats> mailboxStats() {
+        return List.of();
+    }
 }
@@ -0,0 +1,13 @@
+package vest.doctor.event;
+
+/**
+ * Delivery statistics for an {@link AsyncConsumer} mailbox.
+ *
+ * @param consumer  the class name of the consumer
+ * @param depth     the number of events waiting to be delivered
+ * @param capacity  the maximum number of events that can wait in the mailbox
+ * @param delivered the number of events delivered to the consumer
+ * @param dropped   the number of events dropped because the mailbox was full
+ */
+public record MailboxStats(String consumer, int depth, int capacity, long delivered, long dropped) {
+}
@@ -0,0 +1,442 @@
+package vest.doctor.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups items into batches of at most a fixed size, closing a batch early when it has been open for the maximum
+ * delay. Batches are published downstream only against demand: each batch requested downstream requests a full
+ * batch of items from upstream, so the items held by the processor are bounded by the outstanding demand.
+ * <p>
+ * Time-bounded batches are flushed by a task on the scheduler, scheduled when a batch is opened and cancelled when
+ * it fills up.
+ *
+ * @param <T> the subscribed item type
+ * @param <B> the batch type
+ */
+abstract class BatchProcessor<T, B> extends AbstractProcessor<T, B> {
+
+    private final int size;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Queue<B> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private Flow.Subscription upstream;
+
+    // the open batch; guarded by synchronizing on this
+    private B batch;
+    private int count;
+    private long generation;
+    private ScheduledFuture<?> timer;
+
+    BatchProcessor(int size, long maxDelayNanos, ScheduledExecutorService scheduler) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("batch size must be greater than 0");
+        }
+        if (scheduler != null && maxDelayNanos <= 0) {
+            throw new IllegalArgumentException("max delay must be greater than 0");
+        }
+        this.size = size;
+        this.maxDelayNanos = maxDelayNanos;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Open a new batch.
+     */
+    abstract B open();
+
+    /**
+     * Add an item to the open batch.
+     */
+    abstract void add(B batch, T item);
+
+    /**
+     * Close a batch, it will receive no more items.
+     */
+    abstract void close(B batch);
+
+    /**
+     * Abandon a batch after an error.
+     */
+    abstract void abandon(B batch, Throwable error);
+
+    /**
+     * Queue a batch to be published downstream as demand allows.
+     */
+    final void publish(B batch) {
+        ready.add(batch);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.upstream = subscription;
+        super.onSubscribe(new BatchSubscription());
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (cancelled || error != null) {
+            return;
+        }
+        synchronized (this) {
+            if (batch == null) {
+                openBatch();
+                if (batch == null) {
+                    // the flush could not be scheduled
+                    return;
+                }
+            }
+            add(batch, item);
+            if (++count >= size) {
+                closeBatch();
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable, false);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (batch != null) {
+                closeBatch();
+            }
+        }
+        done = true;
+        drain();
+    }
+
+    private void openBatch() {
+        batch = open();
+        count = 0;
+        if (scheduler != null) {
+            long g = generation;
+            try {
+                timer = scheduler.schedule(() -> flush(g), maxDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                fail(e, true);
+            }
+        }
+    }
+
+    private void closeBatch() {
+        close(batch);
+        batch = null;
+        generation++;
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    private void flush(long g) {
+        synchronized (this) {
+            // the batch may have filled up, or been flushed by completion, since the timer was scheduled
+            if (g != generation || batch == null) {
+                return;
+            }
+            closeBatch();
+        }
+        drain();
+    }
+
+    private void fail(Throwable t, boolean cancelUpstream) {
+        synchronized (this) {
+            if (error != null) {
+                return;
+            }
+            error = t;
+        }
+        if (cancelUpstream) {
+            upstream.cancel();
+        }
+        abandonOpenBatch(t);
+        drain();
+    }
+
+    private synchronized void abandonOpenBatch(Throwable t) {
+        if (batch != null) {
+            abandon(batch, t);
+            batch = null;
+            generation++;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (cancelled) {
+                ready.clear();
+                return;
+            }
+            Throwable e = error;
+            if (e != null) {
+                ready.clear();
+                subscriber().onError(e);
+                return;
+            }
+            long r = requested.get();
+            long emitted = 0;
+            while (emitted != r) {
+                B b = ready.poll();
+                if (b == null) {
+                    break;
+                }
+                subscriber().onNext(b);
+                emitted++;
+            }
+            if (emitted > 0 && r != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            // done is read before checking for ready batches so the last batch is not missed
+            if (done && ready.isEmpty()) {
+                subscriber().onComplete();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private final class BatchSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive subscription request: " + n), true);
+                return;
+            }
+            requested.getAndUpdate(current -> {
+                long sum = current + n;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            upstream.request(n >= Long.MAX_VALUE / size ? Long.MAX_VALUE : n * size);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            synchronized (BatchProcessor.this) {
+                if (batch != null) {
+                    closeBatch();
+                }
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Publishes each batch as a list, once it is closed.
+     */
+    static final class Buffer<T> extends BatchProcessor<T, List<T>> {
+        private final int size;
+
+        Buffer(int size, long maxDelayNanos, ScheduledExecutorService scheduler) {
+            super(size, maxDelayNanos, scheduler);
+            this.size = size;
+        }
+
+        @Override
+        List<T> open() {
+            return new ArrayList<>(Math.min(size, 1024));
+        }
+
+        @Override
+        void add(List<T> batch, T item) {
+            batch.add(item);
+        }
+
+        @Override
+        void close(List<T> batch) {
+            publish(batch);
+        }
+
+        @Override
+        void abandon(List<T> batch, Throwable error) {
+        }
+
+        @Override
+        public String toString() {
+            return "buffer->" + subscriber();
+        }
+    }
+
+    /**
+     * Publishes each batch as a window of items when it is opened; items are published into the window as they
+     * arrive, and the window completes when the batch is closed.
+     */
+    static final class Window<T> extends BatchProcessor<T, Rx<T>> {
+        private WindowPublisher<T> window;
+
+        Window(int size, long maxDelayNanos, ScheduledExecutorService scheduler) {
+            super(size, maxDelayNanos, scheduler);
+        }
+
+        @Override
+        Rx<T> open() {
+            window = new WindowPublisher<>();
+            Rx<T> rx = Rx.from(window);
+            publish(rx);
+            return rx;
+        }
+
+        @Override
+        void add(Rx<T> batch, T item) {
+            window.add(item);
+        }
+
+        @Override
+        void close(Rx<T> batch) {
+            window.complete();
+            window = null;
+        }
+
+        @Override
+        void abandon(Rx<T> batch, Throwable error) {
+            window.error(error);
+            window = null;
+        }
+
+        @Override
+        public String toString() {
+            return "window->" + subscriber();
+        }
+    }
+
+    /**
+     * A single-subscriber publisher for the items of one window. Items that arrive before the window is subscribed
+     * to, or without demand, are queued; a window holds at most one batch of items.
+     */
+    static final class WindowPublisher<T> implements Flow.Publisher<T>, Flow.Subscription {
+        private static final Flow.Subscription REJECTED = new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        private final Queue<T> items = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile Flow.Subscriber<? super T> subscriber;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        void add(T item) {
+            items.add(item);
+            drain();
+        }
+
+        void complete() {
+            done = true;
+            drain();
+        }
+
+        void error(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public synchronized void subscribe(Flow.Subscriber<? super T> subscriber) {
+            if (this.subscriber != null) {
+                // the rejected subscriber must not be able to request from or cancel the window
+                subscriber.onSubscribe(REJECTED);
+                subscriber.onError(new IllegalStateException("a window can only be subscribed to once"));
+                return;
+            }
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error(new IllegalArgumentException("non-positive subscription request: " + n));
+                return;
+            }
+            requested.getAndUpdate(current -> {
+                long sum = current + n;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (subscriber == null || wip.getAndIncrement() != 0) {
+                return;
+            }
+            Flow.Subscriber<? super T> s = subscriber;
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    items.clear();
+                    return;
+                }
+                // done is read before the items so a completed window is fully drained
+                boolean d = done;
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r) {
+                    T item = items.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    s.onNext(item);
+                    emitted++;
+                }
+                if (emitted > 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                if (d && (error != null || items.isEmpty())) {
+                    cancelled = true;
+                    items.clear();
+                    if (error != null) {
+                        s.onError(error);
+                    } else {
+                        s.onComplete();
+                    }
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package vest.doctor.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Splits the items from upstream over a number of rails that run on an executor, and merges the results back
+ * into a single flow, see {@link ParallelRx}.
+ * <p>
+ * Every item is numbered as it arrives and handed to the next rail with room in its prefetch queue. A rail drains
+ * its queue on the executor, running the rail action for each item, and hands the result (an item, or nothing if
+ * the item was filtered) to the merge. The merge is drained by one thread at a time: it publishes results while
+ * there is downstream demand, either in arrival order or, when ordered, by sequence number, and requests one item
+ * from upstream for every result it consumes.
+ */
+final class ParallelProcessor<T, R> extends AbstractProcessor<T, R> {
+
+    private final ExecutorService executor;
+    private final int prefetch;
+    private final BiConsumer<? super T, Consumer<? super R>> action;
+    private final boolean ordered;
+    private final List<Rail> rails;
+
+    // finished results: in arrival order for a sequential merge, by sequence number for an ordered merge
+    private final Queue<Result<R>> finished = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Result<R>> reorder = new ConcurrentHashMap<>();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger drainWip = new AtomicInteger();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private Flow.Subscription upstream;
+
+    // only accessed by the upstream onNext thread
+    private long nextSequence;
+    private int nextRail;
+    // only accessed by the draining thread
+    private long emitSequence;
+
+    ParallelProcessor(int rails, ExecutorService executor, int prefetch, BiConsumer<? super T, Consumer<? super R>> action, boolean ordered) {
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.action = action;
+        this.ordered = ordered;
+        this.rails = new ArrayList<>(rails);
+        for (int i = 0; i < rails; i++) {
+            this.rails.add(new Rail());
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.upstream = subscription;
+        super.onSubscribe(new MergeSubscription());
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (cancelled || error.get() != null) {
+            return;
+        }
+        long sequence = nextSequence++;
+        inFlight.incrementAndGet();
+        // round-robin over the rails with room; an upstream that ignores demand overfills the next rail
+        Rail rail = null;
+        for (int i = 0; i < rails.size() && rail == null; i++) {
+            Rail next = nextRail();
+            if (next.size.get() < prefetch) {
+                rail = next;
+            }
+        }
+        if (rail == null) {
+            rail = nextRail();
+        }
+        rail.offer(new Result<>(sequence, item));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (error.compareAndSet(null, throwable)) {
+            drain();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public String toString() {
+        return "parallel(" + rails.size() + (ordered ? ", ordered" : "") + ")->" + subscriber();
+    }
+
+    private Rail nextRail() {
+        Rail rail = rails.get(nextRail);
+        nextRail = (nextRail + 1) % rails.size();
+        return rail;
+    }
+
+    private void fail(Throwable t) {
+        if (error.compareAndSet(null, t)) {
+            upstream.cancel();
+            drain();
+        }
+    }
+
+    private void finish(Result<R> result) {
+        if (ordered) {
+            reorder.put(result.sequence, result);
+        } else {
+            finished.add(result);
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            long r = requested.get();
+            long emitted = 0;
+            long consumed = 0;
+            while (true) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                Throwable e = error.get();
+                if (e != null) {
+                    clear();
+                    subscriber().onError(e);
+                    return;
+                }
+                Result<R> result = ordered ? reorder.get(emitSequence) : finished.peek();
+                if (result == null) {
+                    // done is read before inFlight so that every item published upstream is counted
+                    if (done && inFlight.get() == 0) {
+                        subscriber().onComplete();
+                        return;
+                    }
+                    break;
+                }
+                if (result.value != null) {
+                    if (emitted == r) {
+                        break;
+                    }
+                    subscriber().onNext(result.value);
+                    emitted++;
+                }
+                if (ordered) {
+                    reorder.remove(emitSequence++);
+                } else {
+                    finished.poll();
+                }
+                consumed++;
+                inFlight.decrementAndGet();
+            }
+            if (emitted > 0 && r != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            if (consumed > 0) {
+                upstream.request(consumed);
+            }
+            missed = drainWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void clear() {
+        finished.clear();
+        reorder.clear();
+        for (Rail rail : rails) {
+            rail.queue.clear();
+        }
+    }
+
+    private final class MergeSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive subscription request: " + n));
+                return;
+            }
+            requested.getAndUpdate(current -> {
+                long sum = current + n;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            if (started.compareAndSet(false, true)) {
+                upstream.request((long) rails.size() * prefetch);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            drain();
+        }
+    }
+
+    private final class Rail implements Runnable {
+        private final Queue<Result<T>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        void offer(Result<T> input) {
+            size.incrementAndGet();
+            queue.add(input);
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                Result<T> input;
+                while ((input = queue.poll()) != null) {
+                    if (cancelled || error.get() != null) {
+                        queue.clear();
+                        break;
+                    }
+                    Result<R> output = new Result<>(input.sequence, null);
+                    try {
+                        action.accept(input.value, output);
+                    } catch (Throwable t) {
+                        fail(t);
+                        break;
+                    }
+                    size.decrementAndGet();
+                    finish(output);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    // a numbered item; for results, the value is set at most once by the rail action, or left null if dropped
+    private static final class Result<V> implements Consumer<V> {
+        private final long sequence;
+        private V value;
+
+        Result(long sequence, V value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+
+        @Override
+        public void accept(V v) {
+            if (v == null) {
+                throw new NullPointerException("parallel stages can not publish null items");
+            }
+            if (value != null) {
+                throw new IllegalStateException("parallel stages publish at most one item per input item");
+            }
+            value = v;
+        }
+    }
+}
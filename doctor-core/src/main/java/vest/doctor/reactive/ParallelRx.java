@@ -0,0 +1,117 @@
+package vest.doctor.reactive;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A processing flow split into parallel rails, created by {@link Rx#parallel(int, ExecutorService)}. Items are
+ * distributed round-robin over the rails, and each rail runs the stages added with {@link #map(Function)},
+ * {@link #filter(Predicate)} and {@link #observe(Consumer)} on the rail executor. The rails are merged back into
+ * a single flow with {@link #sequential()}, in the order the rails finish the items, or {@link #ordered()}, in
+ * the order the items were published upstream.
+ * <p>
+ * Each rail holds at most its prefetch of items, and items are requested from upstream as results are emitted
+ * downstream, so no more than <code>rails * prefetch</code> items are in flight at a time for upstreams that
+ * respect demand. Downstream demand is respected by the merge.
+ *
+ * @param <T> the item type published by the rails
+ */
+public final class ParallelRx<T> {
+
+    private final Rx<?> rx;
+    private final int rails;
+    private final ExecutorService executor;
+    private final int prefetch;
+    private BiConsumer<Object, Consumer<Object>> action;
+
+    @SuppressWarnings("unchecked")
+    ParallelRx(Rx<?> rx, int rails, ExecutorService executor, int prefetch) {
+        if (rails <= 0) {
+            throw new IllegalArgumentException("rails must be greater than 0");
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be greater than 0");
+        }
+        this.rx = rx;
+        this.rails = rails;
+        this.executor = Objects.requireNonNull(executor);
+        this.prefetch = prefetch;
+        this.action = (BiConsumer<Object, Consumer<Object>>) (BiConsumer<?, ?>) IDENTITY;
+    }
+
+    /**
+     * Add a mapping stage to the rails.
+     *
+     * @param mapper the mapping function
+     * @param <R>    the new published item type
+     * @return the next step in the parallel composition
+     */
+    public <R> ParallelRx<R> map(Function<? super T, ? extends R> mapper) {
+        return then((item, next) -> next.accept(mapper.apply(item)));
+    }
+
+    /**
+     * Add a filtering stage to the rails. The filter will drop items that evaluate false for the predicate.
+     *
+     * @param filter the filter
+     * @return the next step in the parallel composition
+     */
+    public ParallelRx<T> filter(Predicate<? super T> filter) {
+        return then((item, next) -> {
+            if (filter.test(item)) {
+                next.accept(item);
+            }
+        });
+    }
+
+    /**
+     * Add an observer stage to the rails.
+     *
+     * @param action the observer action
+     * @return the next step in the parallel composition
+     */
+    public ParallelRx<T> observe(Consumer<? super T> action) {
+        return then((item, next) -> {
+            action.accept(item);
+            next.accept(item);
+        });
+    }
+
+    /**
+     * Merge the rails, publishing items in the order the rails finish them.
+     *
+     * @return the next step in the processing composition
+     */
+    public Rx<T> sequential() {
+        return merge(false);
+    }
+
+    /**
+     * Merge the rails, publishing items in the order they were published upstream. Results that finish ahead of
+     * an earlier item wait in a reorder buffer until the earlier item is published or dropped.
+     *
+     * @return the next step in the processing composition
+     */
+    public Rx<T> ordered() {
+        return merge(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Rx<T> merge(boolean ordered) {
+        return ((Rx<Object>) rx).chain(new ParallelProcessor<Object, T>(rails, executor, prefetch, (BiConsumer<Object, Consumer<? super T>>) (BiConsumer<?, ?>) action, ordered));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> ParallelRx<R> then(BiConsumer<? super T, Consumer<? super R>> stage) {
+        BiConsumer<Object, Consumer<Object>> previous = action;
+        BiConsumer<T, Consumer<Object>> s = (BiConsumer<T, Consumer<Object>>) (BiConsumer<?, ?>) stage;
+        action = (item, next) -> previous.accept(item, t -> s.accept((T) t, next));
+        return (ParallelRx<R>) this;
+    }
+
+    private static final BiConsumer<Object, Consumer<Object>> IDENTITY = (item, next) -> next.accept(item);
+}
@@ -31,12 +31,30 @@ public final class Processors {
 
     public static final class OnNextProcessor<I, O> extends AbstractProcessor<I, O> {
 
-        private final TriConsumer<? super I, Flow.Subscription, Flow.Subscriber<? super O>> action;
+        private TriConsumer<? super I, Flow.Subscription, Flow.Subscriber<? super O>> action;
 
         public OnNextProcessor(TriConsumer<? super I, Flow.Subscription, Flow.Subscriber<? super O>> action) {
             this.action = action;
         }
 
+        /**
+         * Fuse another on-next action into this processor, so that items pass through both actions with a single
+         * {@link #onNext(Object)} call. Only valid before this processor has been subscribed to.
+         *
+         * @param next the action to run on the items published by the current action
+         * @param <R>  the new published item type
+         * @return this processor, publishing the items of the fused action
+         */
+        @SuppressWarnings("unchecked")
+        <R> OnNextProcessor<I, R> fuse(TriConsumer<? super O, Flow.Subscription, Flow.Subscriber<? super R>> next) {
+            if (isSubscribed()) {
+                throw new IllegalStateException("can not fuse an action into a subscribed processor");
+            }
+            OnNextProcessor<I, R> fused = (OnNextProcessor<I, R>) (OnNextProcessor<?, ?>) this;
+            fused.action = new Fused<>(action, next);
+            return fused;
+        }
+
         @Override
         public void onNext(I item) {
             try {
@@ -52,6 +70,65 @@ public final class Processors {
         }
     }
 
+    /**
+     * Two on-next actions run as one: items the first action publishes are passed directly to the second action.
+     * The link between them is created once per downstream subscriber; on-next signals are serial, so it is only
+     * accessed by one thread at a time.
+     */
+    static final class Fused<I, M, O> implements TriConsumer<I, Flow.Subscription, Flow.Subscriber<? super O>> {
+        private final TriConsumer<? super I, Flow.Subscription, Flow.Subscriber<? super M>> first;
+        private final TriConsumer<? super M, Flow.Subscription, Flow.Subscriber<? super O>> second;
+        private Link<M, O> link;
+
+        Fused(TriConsumer<? super I, Flow.Subscription, Flow.Subscriber<? super M>> first, TriConsumer<? super M, Flow.Subscription, Flow.Subscriber<? super O>> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void accept(I item, Flow.Subscription subscription, Flow.Subscriber<? super O> subscriber) throws Exception {
+            Link<M, O> l = link;
+            if (l == null || l.subscription != subscription || l.downstream != subscriber) {
+                l = new Link<>(second, subscription, subscriber);
+                link = l;
+            }
+            first.accept(item, subscription, l);
+        }
+
+        @Override
+        public String toString() {
+            return first + "->" + second;
+        }
+    }
+
+    private record Link<M, O>(TriConsumer<? super M, Flow.Subscription, Flow.Subscriber<? super O>> action,
+                              Flow.Subscription subscription,
+                              Flow.Subscriber<? super O> downstream) implements Flow.Subscriber<M> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+        }
+
+        @Override
+        public void onNext(M item) {
+            // the same handling as an unfused processor: errors from the action go downstream
+            try {
+                action.accept(item, subscription, downstream);
+            } catch (Throwable error) {
+                downstream.onError(error);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+
     public static final class OnCompleteProcessor<I> extends AbstractProcessor<I, I> {
         private final BiConsumer<Flow.Subscription, Flow.Subscriber<? super I>> consumer;
 
@@ -1,10 +1,14 @@
 package vest.doctor.reactive;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Flow;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SubmissionPublisher;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -26,15 +30,16 @@ public class Rx<T> implements Flow.Publisher<T> {
 
     /**
      * Create a new reactive flow that will, when subscribed, publish the given item and then close
-     * the flow, i.e. call {@link Flow.Subscriber#onComplete()}.
+     * the flow, i.e. call {@link Flow.Subscriber#onComplete()}. The item is delivered synchronously, on the
+     * thread that requests it.
      *
      * @param item the item to publish
      * @param <I>  the published item type
      * @return a new Rx composition
      */
     public static <I> Rx<I> one(I item) {
-        SubmissionPublisher<I> pub = new SubmissionPublisher<>();
-        return new Rx<>(new RunWithItem<>(pub, item), pub);
+        ScalarPublisher<I> pub = ScalarPublisher.one(item);
+        return new Rx<>(pub::start, pub);
     }
 
     /**
@@ -124,30 +129,31 @@ public class Rx<T> implements Flow.Publisher<T> {
 
     /**
      * Create a new, empty, reactive flow composition. When subscribed, the {@link Flow.Subscriber#onComplete()}
-     * will be called immediately.
+     * will be called immediately, on the subscribing thread.
      *
      * @param <I> the published item type
      * @return a new Rx composition
      */
     public static <I> Rx<I> empty() {
-        SubmissionPublisher<I> pub = new SubmissionPublisher<>();
-        return new Rx<>(new Empty<>(pub), pub);
+        ScalarPublisher<I> pub = ScalarPublisher.empty();
+        return new Rx<>(pub::start, pub);
     }
 
     /**
-     * Create a new reactive flow that will signal an error when subscribed.
+     * Create a new reactive flow that will signal an error when subscribed, on the subscribing thread.
      *
      * @param error the error to signal {@link Flow.Subscriber#onError(Throwable)} with
      * @param <I>   the published item type
      * @return a new Rx composition
      */
     public static <I> Rx<I> error(Throwable error) {
-        SubmissionPublisher<I> pub = new SubmissionPublisher<>();
-        return new Rx<>(() -> pub.closeExceptionally(error), pub);
+        ScalarPublisher<I> pub = ScalarPublisher.error(error);
+        return new Rx<>(pub::start, pub);
     }
 
     final Runnable onSubscribe;
     private Flow.Publisher<T> current;
+    private Processors.OnNextProcessor<?, ?> fusible;
 
     Rx(Runnable onSubscribe, Flow.Publisher<T> current) {
         this.onSubscribe = onSubscribe;
@@ -310,6 +316,59 @@ public class Rx<T> implements Flow.Publisher<T> {
         return chain(new CollectorProcessor<>(collector));
     }
 
+    /**
+     * Add a batching stage to the processing flow. Items are published downstream in lists of the given size;
+     * the last list may be smaller. Each list requested downstream requests <code>size</code> items from upstream.
+     *
+     * @param size the number of items in each list
+     * @return the next step in the processing composition
+     */
+    public Rx<List<T>> buffer(int size) {
+        return chain(new BatchProcessor.Buffer<>(size, 0, null));
+    }
+
+    /**
+     * Add a batching stage to the processing flow. Items are published downstream in lists of the given size,
+     * or fewer, if the list has been open for the max delay. Use the built-in "scheduled" executor, or any other
+     * {@link ScheduledExecutorService}, to flush the lists.
+     *
+     * @param size      the maximum number of items in each list
+     * @param maxDelay  the maximum time between the first item arriving in a list and the list being flushed
+     * @param scheduler the scheduler for flushing lists
+     * @return the next step in the processing composition
+     */
+    public Rx<List<T>> buffer(int size, Duration maxDelay, ScheduledExecutorService scheduler) {
+        return chain(new BatchProcessor.Buffer<>(size, maxDelay.toNanos(), Objects.requireNonNull(scheduler)));
+    }
+
+    /**
+     * Add a windowing stage to the processing flow. Items are published downstream in windows of the given size;
+     * each window is published when its first item arrives and completes after its last item. Each window
+     * requested downstream requests <code>size</code> items from upstream. A window can only be subscribed to
+     * once.
+     *
+     * @param size the number of items in each window
+     * @return the next step in the processing composition
+     */
+    public Rx<Rx<T>> window(int size) {
+        return chain(new BatchProcessor.Window<>(size, 0, null));
+    }
+
+    /**
+     * Add a windowing stage to the processing flow. Items are published downstream in windows of the given size,
+     * or fewer, if the window has been open for the max delay. Use the built-in "scheduled" executor, or any other
+     * {@link ScheduledExecutorService}, to close the windows.
+     *
+     * @param size      the maximum number of items in each window
+     * @param maxDelay  the maximum time between the first item arriving in a window and the window completing
+     * @param scheduler the scheduler for closing windows
+     * @return the next step in the processing composition
+     * @see #window(int)
+     */
+    public Rx<Rx<T>> window(int size, Duration maxDelay, ScheduledExecutorService scheduler) {
+        return chain(new BatchProcessor.Window<>(size, maxDelay.toNanos(), Objects.requireNonNull(scheduler)));
+    }
+
     /**
      * Add a completion stage hook to the processing flow. When the completion signal is received
      * the given runnable will be executed.
@@ -355,6 +414,35 @@ public class Rx<T> implements Flow.Publisher<T> {
         return chain(new SubmissionPublisherProcessorAdapter<>(executor, bufferSize));
     }
 
+    /**
+     * Split the processing flow into parallel rails, each processing its items on the given executor. Each rail
+     * prefetches up to 32 items.
+     *
+     * @param rails    the number of rails
+     * @param executor the executor that will run the rails
+     * @return the parallel composition, merged back into a single flow with {@link ParallelRx#sequential()}
+     * or {@link ParallelRx#ordered()}
+     * @see #parallel(int, ExecutorService, int)
+     */
+    public ParallelRx<T> parallel(int rails, ExecutorService executor) {
+        return parallel(rails, executor, 32);
+    }
+
+    /**
+     * Split the processing flow into parallel rails, each processing its items on the given executor.
+     * Items are distributed round-robin over the rails, and no more than <code>rails * prefetch</code>
+     * items are requested from upstream ahead of the downstream merge.
+     *
+     * @param rails    the number of rails
+     * @param executor the executor that will run the rails
+     * @param prefetch the maximum number of items queued for each rail
+     * @return the parallel composition, merged back into a single flow with {@link ParallelRx#sequential()}
+     * or {@link ParallelRx#ordered()}
+     */
+    public ParallelRx<T> parallel(int rails, ExecutorService executor, int prefetch) {
+        return new ParallelRx<>(this, rails, executor, prefetch);
+    }
+
     /**
      * Add an {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} hook stage to this processing flow.
      *
@@ -367,13 +455,26 @@ public class Rx<T> implements Flow.Publisher<T> {
 
     /**
      * Add an {@link Flow.Subscriber#onNext(Object)} hook stage to this processing flow.
+     * Adjacent on-next stages, including {@link #map(Function)}, {@link #filter(Predicate)},
+     * {@link #takeWhile(Predicate)} and {@link #observe(Consumer)}, are fused into a single processor
+     * so that items pass through all of them with one {@link Flow.Subscriber#onNext(Object)} call.
      *
      * @param action the action to take when {@link Flow.Subscriber#onNext(Object)} is called
      * @param <R>    the new published item type
      * @return the next step in the processing composition
      */
+    @SuppressWarnings("unchecked")
     public <R> Rx<R> onNext(TriConsumer<? super T, Flow.Subscription, Flow.Subscriber<? super R>> action) {
-        return chain(new Processors.OnNextProcessor<>(action));
+        // adjacent on-next stages are fused into a single processor
+        if (fusible != null && fusible == current && !fusible.isSubscribed()) {
+            Processors.OnNextProcessor<?, R> fused = ((Processors.OnNextProcessor<?, T>) fusible).fuse(action);
+            current = (Flow.Publisher<T>) fused;
+            return (Rx<R>) this;
+        }
+        Processors.OnNextProcessor<T, R> processor = new Processors.OnNextProcessor<>(action);
+        Rx<R> next = chain(processor);
+        fusible = processor;
+        return next;
     }
 
     /**
@@ -469,13 +570,6 @@ public class Rx<T> implements Flow.Publisher<T> {
         }
     }
 
-    record Empty<T>(SubmissionPublisher<T> publisher) implements Runnable {
-        @Override
-        public void run() {
-            publisher.close();
-        }
-    }
-
     record Mapper<T, R>(
             Function<? super T, ? extends R> mapper) implements TriConsumer<T, Flow.Subscription, Flow.Subscriber<? super R>> {
         @Override
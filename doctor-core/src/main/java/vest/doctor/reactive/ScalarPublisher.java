@@ -0,0 +1,153 @@
+package vest.doctor.reactive;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Flow.Publisher} of at most one signal: a single item followed by completion, completion alone, or an
+ * error. Signals are delivered inline, on the thread that makes them deliverable, with no executor hop or buffering.
+ * <p>
+ * Because {@link Rx} subscribes its stages as they are composed, the publisher holds back every signal until
+ * {@link #start()} is called, which {@link Rx#subscribe()} does once the terminal subscriber is in place. After
+ * starting, the item is delivered to each subscriber when it requests, and completion or error signals are delivered
+ * without demand.
+ *
+ * @param <T> the published item type
+ */
+final class ScalarPublisher<T> implements Flow.Publisher<T> {
+
+    static <T> ScalarPublisher<T> one(T item) {
+        return new ScalarPublisher<>(item, null, true);
+    }
+
+    static <T> ScalarPublisher<T> empty() {
+        return new ScalarPublisher<>(null, null, false);
+    }
+
+    static <T> ScalarPublisher<T> error(Throwable error) {
+        return new ScalarPublisher<>(null, error, false);
+    }
+
+    private final T item;
+    private final Throwable error;
+    private final boolean hasItem;
+    private final Queue<ScalarSubscription> waiting = new ConcurrentLinkedQueue<>();
+    private volatile boolean started;
+
+    private ScalarPublisher(T item, Throwable error, boolean hasItem) {
+        this.item = item;
+        this.error = error;
+        this.hasItem = hasItem;
+    }
+
+    /**
+     * Allow signals to be delivered to current and future subscribers.
+     */
+    void start() {
+        started = true;
+        ScalarSubscription subscription;
+        while ((subscription = waiting.poll()) != null) {
+            subscription.start();
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber can not be null");
+        }
+        ScalarSubscription subscription = new ScalarSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (!started) {
+            waiting.add(subscription);
+            // start() may have drained the queue before the subscription was added
+            if (!started || !waiting.remove(subscription)) {
+                return;
+            }
+        }
+        subscription.start();
+    }
+
+    @Override
+    public String toString() {
+        return hasItem ? "one(" + item + ")" : error != null ? "error(" + error + ")" : "empty";
+    }
+
+    private final class ScalarSubscription implements Flow.Subscription {
+        private static final int REQUESTED = 1;
+        private static final int STARTED = 2;
+        private static final int DONE = 4;
+        private static final int CANCELLED = 8;
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicInteger state = new AtomicInteger();
+
+        ScalarSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (terminate(DONE)) {
+                    subscriber.onError(new IllegalArgumentException("non-positive subscription request: " + n));
+                }
+                return;
+            }
+            signal(REQUESTED);
+        }
+
+        @Override
+        public void cancel() {
+            terminate(DONE | CANCELLED);
+        }
+
+        void start() {
+            signal(STARTED);
+        }
+
+        private void signal(int flag) {
+            // an item needs demand to be delivered, terminal signals only need the publisher to be started
+            int required = hasItem ? REQUESTED | STARTED : STARTED;
+            int s;
+            do {
+                s = state.get();
+                if ((s & DONE) != 0) {
+                    return;
+                }
+                if (((s | flag) & required) != required) {
+                    if (state.compareAndSet(s, s | flag)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (state.compareAndSet(s, s | flag | DONE)) {
+                    break;
+                }
+            } while (true);
+            emit();
+        }
+
+        private boolean terminate(int flags) {
+            // a cancel while the item is being delivered still suppresses the completion signal
+            return (state.getAndUpdate(s -> s | flags) & DONE) == 0;
+        }
+
+        private void emit() {
+            if (error != null) {
+                subscriber.onError(error);
+            } else if (hasItem && item == null) {
+                subscriber.onError(new NullPointerException("a null item can not be published"));
+            } else {
+                if (hasItem) {
+                    subscriber.onNext(item);
+                }
+                if ((state.get() & CANCELLED) == 0) {
+                    subscriber.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package vest.doctor.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically adjusts the core pool size of a {@link ThreadPoolExecutor} to the measured load.
+ * <p>
+ * Each interval the arrival rate and mean task run time are measured, and by Little's law the number of threads
+ * needed to keep up is their product; enough threads to drain any queued backlog within the next interval are
+ * added to that. The pool grows to the target immediately and shrinks by at most half the difference per
+ * interval, and never shrinks while tasks are waiting longer than they run. The core size stays within the
+ * configured minimum and maximum threads.
+ */
+final class AdaptivePoolSizer implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorInstrumentation instrumentation;
+    private final int minThreads;
+    private final int maxThreads;
+    private final long intervalNanos;
+    private ScheduledFuture<?> future;
+
+    // measurements at the previous adjustment; guarded by synchronizing on this
+    private long lastTick;
+    private long lastCompleted;
+    private long lastQueued;
+    private long lastRunCount;
+    private long lastRunSum;
+    private long lastWaitCount;
+    private long lastWaitSum;
+
+    AdaptivePoolSizer(String name, ThreadPoolExecutor executor, ExecutorInstrumentation instrumentation, int minThreads, int maxThreads, long intervalNanos) {
+        this.name = name;
+        this.executor = executor;
+        this.instrumentation = instrumentation;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.intervalNanos = intervalNanos;
+    }
+
+    synchronized void start(ScheduledExecutorService scheduler) {
+        lastTick = System.nanoTime();
+        lastCompleted = executor.getCompletedTaskCount();
+        lastQueued = executor.getQueue().size();
+        lastRunCount = instrumentation.runTime().count();
+        lastRunSum = instrumentation.runTime().sum();
+        lastWaitCount = instrumentation.queueWait().count();
+        lastWaitSum = instrumentation.queueWait().sum();
+        future = scheduler.scheduleWithFixedDelay(this, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void run() {
+        if (executor.isShutdown()) {
+            future.cancel(false);
+            return;
+        }
+        try {
+            adjust();
+        } catch (Throwable t) {
+            log.warn("error adjusting the pool size of executor {}", name, t);
+        }
+    }
+
+    private void adjust() {
+        long now = System.nanoTime();
+        long completed = executor.getCompletedTaskCount();
+        long queued = executor.getQueue().size();
+        long runCount = instrumentation.runTime().count();
+        long runSum = instrumentation.runTime().sum();
+        long waitCount = instrumentation.queueWait().count();
+        long waitSum = instrumentation.queueWait().sum();
+
+        double seconds = Math.max(1, now - lastTick) / 1e9;
+        long done = completed - lastCompleted;
+        double arrivalRate = Math.max(0, done + queued - lastQueued) / seconds;
+        double meanRunSeconds = runCount > lastRunCount ? (runSum - lastRunSum) / 1e9 / (runCount - lastRunCount) : 0;
+        double meanWaitSeconds = waitCount > lastWaitCount ? (waitSum - lastWaitSum) / 1e9 / (waitCount - lastWaitCount) : 0;
+
+        double concurrency = arrivalRate * meanRunSeconds;
+        double backlog = queued * meanRunSeconds / (intervalNanos / 1e9);
+        int target = Math.max(minThreads, Math.min(maxThreads, (int) Math.ceil(concurrency + backlog)));
+
+        int current = executor.getCorePoolSize();
+        int next;
+        if (target > current) {
+            next = target;
+        } else if (target < current && meanWaitSeconds <= meanRunSeconds) {
+            next = current - Math.max(1, (current - target) / 2);
+        } else {
+            next = current;
+        }
+
+        if (next != current) {
+            executor.setCorePoolSize(next);
+            log.info("executor {} core pool size {} -> {}: throughput {}/s, arrivals {}/s, mean run {}ms, mean wait {}ms, queued {}",
+                    name, current, next, format(done / seconds), format(arrivalRate), format(meanRunSeconds * 1000), format(meanWaitSeconds * 1000), queued);
+        } else {
+            log.debug("executor {} core pool size unchanged at {}: throughput {}/s, arrivals {}/s, mean run {}ms, mean wait {}ms, queued {}",
+                    name, current, format(done / seconds), format(arrivalRate), format(meanRunSeconds * 1000), format(meanWaitSeconds * 1000), queued);
+        }
+
+        lastTick = now;
+        lastCompleted = completed;
+        lastQueued = queued;
+        lastRunCount = runCount;
+        lastRunSum = runSum;
+        lastWaitCount = waitCount;
+        lastWaitSum = waitSum;
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
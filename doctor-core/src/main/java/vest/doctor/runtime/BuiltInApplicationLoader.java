@@ -2,13 +2,27 @@ package vest.doctor.runtime;
 
 import vest.doctor.AdHocProvider;
 import vest.doctor.ApplicationLoader;
+import vest.doctor.ExecutorMetrics;
 import vest.doctor.ProviderRegistry;
+import vest.doctor.ScheduledTaskMetrics;
+import vest.doctor.aop.BatchedAspect;
+import vest.doctor.aop.CacheResultAspect;
+import vest.doctor.aop.CircuitBreakerAspect;
+import vest.doctor.aop.RetryAspect;
+import vest.doctor.aop.SingleFlightAspect;
 import vest.doctor.conf.ConfigurationFacade;
+import vest.doctor.conf.ConfigurationWatcher;
+import vest.doctor.event.ApplicationShutdown;
+import vest.doctor.event.ConfigurationChanged;
 import vest.doctor.event.EventBus;
 import vest.doctor.event.ReloadConfiguration;
+import vest.doctor.scheduled.Interval;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 public final class BuiltInApplicationLoader implements ApplicationLoader {
 
@@ -18,15 +32,21 @@ public final class BuiltInApplicationLoader implements ApplicationLoader {
     @Override
     public void stage1(ProviderRegistry providerRegistry) {
         providerRegistry.register(new AdHocProvider<>(ConfigurationFacade.class, providerRegistry.configuration(), null));
+        providerRegistry.register(new AdHocProvider<>(ExecutorMetrics.class, new ExecutorMetrics(), null));
+        providerRegistry.register(new AdHocProvider<>(ScheduledTaskMetrics.class, new ScheduledTaskMetrics(), null));
 
         Map<String, ConfigurationDrivenExecutorServiceProvider.ThreadPoolType> executors = new HashMap<>();
         providerRegistry.configuration()
                 .getSubGroups("executors.")
                 .forEach(n -> executors.put(n, null));
 
-        EventBus eventBus = new EventBusImpl();
+        Supplier<ScheduledExecutorService> scheduler = () -> providerRegistry.getInstance(ScheduledExecutorService.class, DEFAULT_SCHEDULED_EXECUTOR_NAME);
+        EventBus eventBus = new EventBusImpl(name -> providerRegistry.getInstance(ExecutorService.class, name), scheduler);
         providerRegistry.register(new AdHocProvider<>(EventBus.class, eventBus, null));
         eventBus.addConsumer(ReloadConfiguration.class, rc -> providerRegistry.configuration().reload());
+        providerRegistry.register(new AdHocProvider<>(CircuitBreakerAspect.class, new CircuitBreakerAspect(eventBus), null));
+        providerRegistry.register(new AdHocProvider<>(CacheResultAspect.class, new CacheResultAspect(), null));
+        providerRegistry.register(new AdHocProvider<>(SingleFlightAspect.class, new SingleFlightAspect(), null));
         executors.put(DEFAULT_EXECUTOR_NAME, null);
         executors.put(DEFAULT_SCHEDULED_EXECUTOR_NAME, ConfigurationDrivenExecutorServiceProvider.ThreadPoolType.scheduled);
 
@@ -34,6 +54,18 @@ public final class BuiltInApplicationLoader implements ApplicationLoader {
             ConfigurationDrivenExecutorServiceProvider cdesp = new ConfigurationDrivenExecutorServiceProvider(providerRegistry, e.getKey(), e.getValue());
             providerRegistry.register(new SingletonScopedProvider<>(cdesp));
         }
+
+        providerRegistry.register(new AdHocProvider<>(RetryAspect.class, new RetryAspect(scheduler), null));
+        providerRegistry.register(new AdHocProvider<>(BatchedAspect.class, new BatchedAspect(scheduler), null));
+
+        ConfigurationFacade configuration = providerRegistry.configuration();
+        // watching starts a thread and may reload configuration at runtime, so it is opt-in
+        if (configuration.get("doctor.configuration.watch", false, Boolean::valueOf)) {
+            Interval debounce = new Interval(configuration.get("doctor.configuration.watchDebounce", "250ms"));
+            ConfigurationWatcher watcher = new ConfigurationWatcher(configuration, scheduler, debounce.getMagnitude(), debounce.getUnit(),
+                    (source, changed) -> eventBus.publish(new ConfigurationChanged(source.toString(), changed)));
+            eventBus.addConsumer(ApplicationShutdown.class, shutdown -> watcher.close());
+        }
     }
 
     @Override
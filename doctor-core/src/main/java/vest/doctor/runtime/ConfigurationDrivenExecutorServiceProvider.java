@@ -3,11 +3,15 @@ package vest.doctor.runtime;
 import jakarta.inject.Provider;
 import vest.doctor.CustomThreadFactory;
 import vest.doctor.DoctorProvider;
+import vest.doctor.ExecutorMetrics;
+import vest.doctor.PartitionedExecutor;
 import vest.doctor.ProviderRegistry;
 import vest.doctor.conf.ConfigurationFacade;
+import vest.doctor.scheduled.Interval;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -25,13 +29,30 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Supported properties:
  * executors.[name].type - the type of the executor - allowed value is one of {@link ThreadPoolType}
- * executors.[name].minThreads - the minimum number of threads in the pool; not valid for forkjoin type
- * executors.[name].maxThreads - the maximum number of threads in the pool; not valid for cached type
+ * executors.[name].minThreads - the minimum number of threads in the pool; not valid for forkjoin or partitioned types
+ * executors.[name].maxThreads - the maximum number of threads in the pool; not valid for cached or partitioned types
  * executors.[name].keepAliveSeconds - the number of seconds to keep idle threads in the pool alive before allowing them to be destroyed; not valid for forkjoin type
  * executors.[name].uncaughtExceptionHandler - the qualifier for a provided {@link Thread.UncaughtExceptionHandler} to use in the thread pool
  * executors.[name].daemonize - sets whether threads created by the executor will be daemons; {@link Thread#setDaemon(boolean)}
  * executors.[name].nameFormat - format of the thread names; e.g. "background-%d"
  * executors.[name].rejectedExecutionHandler - either the qualifier for a provided {@link RejectedExecutionHandler} or the name of one of the built in handlers: discard, discardOldest, callerRuns, abort
+ * executors.[name].queueSize - the maximum number of tasks waiting for a thread, 0 to hand tasks directly to threads; unbounded if not set; only valid for fixed type
+ * executors.[name].instrumented - whether to record task timings and thread statistics, see {@link ExecutorMetrics}; defaults to false; only valid for cached, fixed, and scheduled types
+ * executors.[name].partitions - the number of partitions, and worker threads, of a partitioned executor; defaults to the number of available processors; only valid for partitioned type
+ * executors.[name].adaptive - whether to periodically adjust the core pool size to the measured load, within minThreads and maxThreads; defaults to false; only valid for cached and fixed types
+ * executors.[name].adaptiveInterval - how often an adaptive executor adjusts its pool size; defaults to "1s"
+ * executors.[name].namePrefix - prefix of the virtual thread names, a counter is appended; e.g. "io-"; only valid for virtual type
+ * executors.[name].maxConcurrency - the maximum number of tasks running at once, 0 for unlimited; only valid for virtual type
+ * executors.[name].tickDuration - the timer resolution of a hashed wheel timer; defaults to "10ms"; only valid for wheel type
+ * executors.[name].ticksPerWheel - the number of buckets in a hashed wheel timer, rounded up to a power of two; defaults to 512; only valid for wheel type
+ * executors.[name].workerExecutor - the name of the executor that runs the tasks of a hashed wheel timer; defaults to {@link BuiltInApplicationLoader#DEFAULT_EXECUTOR_NAME}; only valid for wheel type
+ * <p>
+ * Fixed executors grow toward maxThreads before queueing tasks, and reject tasks with the configured
+ * rejectedExecutionHandler once all threads are busy and the queue is full.
+ * <p>
+ * Wheel executors are {@link ScheduledExecutorService}s with O(1) scheduling and cancellation, suited to large numbers of
+ * timers, that fire at tick granularity and run tasks on their worker executor. The
+ * {@link BuiltInApplicationLoader#DEFAULT_SCHEDULED_EXECUTOR_NAME} executor can be configured with either the scheduled or wheel type.
  * <p>
  * There are two executors provided automatically, their names are {@link BuiltInApplicationLoader#DEFAULT_EXECUTOR_NAME} and {@link BuiltInApplicationLoader#DEFAULT_SCHEDULED_EXECUTOR_NAME}
  */
@@ -42,7 +63,7 @@ public class ConfigurationDrivenExecutorServiceProvider implements DoctorProvide
     public static final int DEFAULT_KEEP_ALIVE = 60;
 
     public enum ThreadPoolType {
-        cached, fixed, scheduled, forkjoin
+        cached, fixed, scheduled, forkjoin, virtual, partitioned, wheel
     }
 
     public enum RejectedExecutionType {
@@ -68,15 +89,19 @@ public class ConfigurationDrivenExecutorServiceProvider implements DoctorProvide
         this.providerRegistry = providerRegistry;
         this.executorConfig = providerRegistry.configuration().prefix("executors." + name + ".");
         this.name = name;
-        if (forceType != null) {
+        ThreadPoolType configuredType = executorConfig.get("type", ThreadPoolType.fixed, ThreadPoolType::valueOf);
+        if (forceType == ThreadPoolType.scheduled && configuredType == ThreadPoolType.wheel) {
+            this.type = ThreadPoolType.wheel;
+        } else if (forceType != null) {
             this.type = forceType;
         } else {
-            this.type = executorConfig.get("type", ThreadPoolType.fixed, ThreadPoolType::valueOf);
+            this.type = configuredType;
         }
         this.providedTypes = switch (type) {
-            case cached, fixed -> List.of(Executor.class, ExecutorService.class);
-            case scheduled -> List.of(Executor.class, ExecutorService.class, ScheduledExecutorService.class);
+            case cached, fixed, virtual -> List.of(Executor.class, ExecutorService.class);
+            case scheduled, wheel -> List.of(Executor.class, ExecutorService.class, ScheduledExecutorService.class);
             case forkjoin -> List.of(Executor.class, ExecutorService.class, ForkJoinPool.class);
+            case partitioned -> List.of(Executor.class, ExecutorService.class, PartitionedExecutor.class);
         };
     }
 
@@ -122,38 +147,63 @@ public class ConfigurationDrivenExecutorServiceProvider implements DoctorProvide
         if (keepAliveSeconds <= 0) {
             throw new IllegalArgumentException("invalid keepAliveSecond for executor " + name + ": must be greater than 0");
         }
+        boolean instrumented = executorConfig.get("instrumented", false, Boolean::valueOf);
+        boolean adaptive = executorConfig.get("adaptive", false, Boolean::valueOf);
+        if (adaptive && type != ThreadPoolType.fixed && type != ThreadPoolType.cached) {
+            throw new IllegalArgumentException("invalid adaptive for executor " + name + ": only cached and fixed executors can be adaptive");
+        }
+        // adaptive sizing is driven by the task timings
+        ExecutorInstrumentation instrumentation = instrumented || adaptive
+                ? new ExecutorInstrumentation()
+                : null;
         switch (type) {
             case fixed:
-                ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                int queueSize = executorConfig.get("queueSize", -1, Integer::valueOf);
+                if (queueSize < -1) {
+                    throw new IllegalArgumentException("invalid queueSize for executor " + name + ": must be greater than or equal to 0");
+                }
+                ThreadPoolTaskQueue taskQueue = queueSize != 0 ? new ThreadPoolTaskQueue(queueSize > 0 ? queueSize : Integer.MAX_VALUE) : null;
+                ThreadPoolExecutor threadPoolExecutor = newThreadPoolExecutor(
                         minThreads,
                         maxThreads,
                         keepAliveSeconds,
-                        TimeUnit.SECONDS,
-                        new LinkedBlockingQueue<>(),
-                        getThreadFactory(),
-                        getRejectedExecutionHandler());
+                        taskQueue != null ? taskQueue : new SynchronousQueue<>(),
+                        instrumentation);
+                if (taskQueue != null) {
+                    taskQueue.attach(threadPoolExecutor, threadPoolExecutor.getRejectedExecutionHandler());
+                }
                 threadPoolExecutor.allowCoreThreadTimeOut(false);
                 threadPoolExecutor.prestartAllCoreThreads();
+                if (instrumented) {
+                    register(threadPoolExecutor, instrumentation);
+                }
+                if (adaptive) {
+                    adapt(threadPoolExecutor, instrumentation, minThreads, maxThreads);
+                }
                 return Executors.unconfigurableExecutorService(threadPoolExecutor);
 
             case cached:
-                ThreadPoolExecutor cached = new ThreadPoolExecutor(
+                ThreadPoolExecutor cached = newThreadPoolExecutor(
                         minThreads,
                         Integer.MAX_VALUE,
                         keepAliveSeconds,
-                        TimeUnit.SECONDS,
                         new SynchronousQueue<>(),
-                        getThreadFactory(),
-                        getRejectedExecutionHandler());
-                cached.allowCoreThreadTimeOut(true);
+                        instrumentation);
+                // adaptive pools keep the core threads they have grown to
+                cached.allowCoreThreadTimeOut(!adaptive);
                 cached.prestartCoreThread();
+                if (instrumented) {
+                    register(cached, instrumentation);
+                }
+                if (adaptive) {
+                    adapt(cached, instrumentation, minThreads, maxThreads);
+                }
                 return Executors.unconfigurableExecutorService(cached);
 
             case scheduled:
-                ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(
-                        minThreads,
-                        getThreadFactory(),
-                        getRejectedExecutionHandler());
+                ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = instrumentation != null
+                        ? new ExecutorInstrumentation.InstrumentedScheduledThreadPoolExecutor(minThreads, getThreadFactory(), getRejectedExecutionHandler(), instrumentation)
+                        : new ScheduledThreadPoolExecutor(minThreads, getThreadFactory(), getRejectedExecutionHandler());
                 scheduledThreadPoolExecutor.setMaximumPoolSize(maxThreads);
                 scheduledThreadPoolExecutor.setKeepAliveTime(keepAliveSeconds, TimeUnit.SECONDS);
                 scheduledThreadPoolExecutor.allowCoreThreadTimeOut(true);
@@ -161,14 +211,68 @@ public class ConfigurationDrivenExecutorServiceProvider implements DoctorProvide
                 scheduledThreadPoolExecutor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
                 scheduledThreadPoolExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
                 scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
+                if (instrumented) {
+                    register(scheduledThreadPoolExecutor, instrumentation);
+                }
                 return Executors.unconfigurableScheduledExecutorService(scheduledThreadPoolExecutor);
 
             case forkjoin:
+                requireUninstrumented(instrumentation);
                 return new ForkJoinPool(
                         maxThreads,
                         getThreadFactory(),
                         getThreadFactory().getUncaughtExceptionHandler(),
                         true);
+
+            case virtual:
+                requireUninstrumented(instrumentation);
+                int maxConcurrency = executorConfig.get("maxConcurrency", 0, Integer::valueOf);
+                if (maxConcurrency < 0) {
+                    throw new IllegalArgumentException("invalid maxConcurrency for executor " + name + ": must be greater than or equal to 0");
+                }
+                ExecutorService virtualThreads = VirtualThreads.newThreadPerTaskExecutor(
+                        executorConfig.get("namePrefix", name + "-"),
+                        getThreadFactory().getUncaughtExceptionHandler());
+                return maxConcurrency > 0
+                        ? new ConcurrencyLimitedExecutorService(virtualThreads, maxConcurrency)
+                        : Executors.unconfigurableExecutorService(virtualThreads);
+
+            case partitioned:
+                requireUninstrumented(instrumentation);
+                int partitions = executorConfig.get("partitions", Runtime.getRuntime().availableProcessors(), Integer::valueOf);
+                if (partitions <= 0) {
+                    throw new IllegalArgumentException("invalid partitions for executor " + name + ": must be greater than 0");
+                }
+                ThreadPoolExecutor workers = new ThreadPoolExecutor(
+                        partitions,
+                        partitions,
+                        keepAliveSeconds,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        getThreadFactory(),
+                        new ThreadPoolExecutor.AbortPolicy());
+                return new PartitionedExecutorService(workers, partitions);
+
+            case wheel:
+                requireUninstrumented(instrumentation);
+                Interval tickDuration = new Interval(executorConfig.get("tickDuration", "10ms"));
+                if (tickDuration.getMagnitude() <= 0) {
+                    throw new IllegalArgumentException("invalid tickDuration for executor " + name + ": must be greater than 0");
+                }
+                int ticksPerWheel = executorConfig.get("ticksPerWheel", 512, Integer::valueOf);
+                if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+                    throw new IllegalArgumentException("invalid ticksPerWheel for executor " + name + ": must be greater than 0 and at most 2^30");
+                }
+                String workerExecutor = executorConfig.get("workerExecutor", BuiltInApplicationLoader.DEFAULT_EXECUTOR_NAME);
+                if (workerExecutor.equals(name)) {
+                    throw new IllegalArgumentException("invalid workerExecutor for executor " + name + ": can not be the executor itself");
+                }
+                return new HashedWheelScheduledExecutorService(
+                        tickDuration.getMagnitude(),
+                        tickDuration.getUnit(),
+                        ticksPerWheel,
+                        () -> providerRegistry.getInstance(ExecutorService.class, workerExecutor),
+                        getThreadFactory());
             default:
                 throw new IllegalArgumentException("unknown executor service type: " + type);
         }
@@ -178,6 +282,30 @@ public class ConfigurationDrivenExecutorServiceProvider implements DoctorProvide
     public void close() {
     }
 
+    private ThreadPoolExecutor newThreadPoolExecutor(int corePoolSize, int maxPoolSize, int keepAliveSeconds, BlockingQueue<Runnable> queue, ExecutorInstrumentation instrumentation) {
+        if (instrumentation != null) {
+            return new ExecutorInstrumentation.InstrumentedThreadPoolExecutor(corePoolSize, maxPoolSize, keepAliveSeconds, TimeUnit.SECONDS, queue, getThreadFactory(), getRejectedExecutionHandler(), instrumentation);
+        } else {
+            return new ThreadPoolExecutor(corePoolSize, maxPoolSize, keepAliveSeconds, TimeUnit.SECONDS, queue, getThreadFactory(), getRejectedExecutionHandler());
+        }
+    }
+
+    private void register(ThreadPoolExecutor executor, ExecutorInstrumentation instrumentation) {
+        providerRegistry.getInstance(ExecutorMetrics.class).register(name, () -> instrumentation.stats(name, executor));
+    }
+
+    private void adapt(ThreadPoolExecutor executor, ExecutorInstrumentation instrumentation, int minThreads, int maxThreads) {
+        Interval interval = new Interval(executorConfig.get("adaptiveInterval", "1s"));
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(name, executor, instrumentation, minThreads, maxThreads, interval.getUnit().toNanos(interval.getMagnitude()));
+        sizer.start(providerRegistry.getInstance(ScheduledExecutorService.class, BuiltInApplicationLoader.DEFAULT_SCHEDULED_EXECUTOR_NAME));
+    }
+
+    private void requireUninstrumented(ExecutorInstrumentation instrumentation) {
+        if (instrumentation != null) {
+            throw new IllegalArgumentException("invalid instrumented for executor " + name + ": only cached, fixed, and scheduled executors can be instrumented");
+        }
+    }
+
     private CustomThreadFactory getThreadFactory() {
         String uncaughtExceptionHandlerQualifier = executorConfig.get("uncaughtExceptionHandler");
         Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
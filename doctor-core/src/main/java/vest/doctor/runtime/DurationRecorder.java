@@ -0,0 +1,35 @@
+package vest.doctor.runtime;
+
+import vest.doctor.ExecutorStats;
+
+/**
+ * Records nanosecond durations and summarizes them as {@link ExecutorStats.Timing}. Used internally by the
+ * runtime metrics outside of this package, e.g. {@link vest.doctor.ScheduledTaskMetrics}.
+ */
+public final class DurationRecorder {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * Record a duration; negative durations are recorded as 0.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long count() {
+        return histogram.count();
+    }
+
+    /**
+     * @return the summary of the recorded durations
+     */
+    public ExecutorStats.Timing snapshot() {
+        return histogram.snapshot();
+    }
+}
@@ -3,41 +3,74 @@ package vest.doctor.runtime;
 import jakarta.inject.Provider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import vest.doctor.event.AsyncConsumer;
+import vest.doctor.event.Coalesce;
 import vest.doctor.event.ErrorEvent;
 import vest.doctor.event.EventBus;
 import vest.doctor.event.EventConsumer;
+import vest.doctor.event.MailboxStats;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 final class EventBusImpl implements EventBus, EventConsumer<ErrorEvent> {
 
     private static final Logger log = LoggerFactory.getLogger(EventBusImpl.class);
     private final Collection<ConsumerHolder> consumers = new ConcurrentLinkedDeque<>();
+    private final Collection<EventMailbox> mailboxes = new ConcurrentLinkedDeque<>();
+    private final Function<String, ? extends Executor> executors;
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private volatile DispatchTable dispatchTable = new DispatchTable();
 
-    EventBusImpl() {
+    EventBusImpl(Function<String, ? extends Executor> executors, Supplier<ScheduledExecutorService> scheduler) {
+        this.executors = executors;
+        this.scheduler = scheduler;
         addConsumer(ErrorEvent.class, this);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> void addConsumer(Class<T> eventType, EventConsumer<? super T> consumer) {
-        addConsumer(eventType, new StaticProvider<>(consumer));
+        EventConsumer<Object> target = (EventConsumer<Object>) consumer;
+        AsyncConsumer async = consumer.getClass().getAnnotation(AsyncConsumer.class);
+        if (async != null) {
+            EventMailbox mailbox = new EventMailbox(target, async, () -> executors.apply(async.executor()));
+            mailboxes.add(mailbox);
+            target = mailbox;
+        }
+        Coalesce coalesce = consumer.getClass().getAnnotation(Coalesce.class);
+        if (coalesce != null) {
+            target = new EventCoalescer((EventConsumer<Object>) consumer, target, coalesce, scheduler);
+        }
+        addConsumer(eventType, new StaticProvider<>(target));
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> void addConsumer(Class<T> eventType, Provider<? extends EventConsumer<? super T>> provider) {
         consumers.add(new ConsumerHolder(eventType, (Provider<EventConsumer<Object>>) provider));
+        dispatchTable = new DispatchTable();
+    }
+
+    @Override
+    public List<MailboxStats> mailboxStats() {
+        return mailboxes.stream().map(EventMailbox::stats).toList();
     }
 
     @Override
     public void publish(Object event) {
-        for (ConsumerHolder eventConsumer : consumers) {
-            if (eventConsumer.type.isInstance(event)) {
-                eventConsumer.consumer.get().accept(event);
-            }
+        if (event == null) {
+            return;
+        }
+        for (EventConsumer<Object> consumer : dispatchTable.get(event.getClass())) {
+            consumer.accept(event);
         }
     }
 
@@ -57,6 +90,29 @@ final class EventBusImpl implements EventBus, EventConsumer<ErrorEvent> {
     }
 
     private record ConsumerHolder(Class<?> type, Provider<? extends EventConsumer<Object>> consumer) {
+
+        EventConsumer<Object> resolve() {
+            if (consumer instanceof StaticProvider<? extends EventConsumer<Object>> sp) {
+                return sp.val();
+            }
+            return event -> consumer.get().accept(event);
+        }
+    }
+
+    /**
+     * Maps concrete event classes to the consumers listening for them (including consumers of supertypes and
+     * interfaces), so a publish only touches matching consumers. A new table replaces the old whenever a consumer
+     * is added.
+     */
+    private final class DispatchTable extends ClassValue<EventConsumer<Object>[]> {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected EventConsumer<Object>[] computeValue(Class<?> eventType) {
+            return consumers.stream()
+                    .filter(holder -> holder.type.isAssignableFrom(eventType))
+                    .map(ConsumerHolder::resolve)
+                    .toArray(EventConsumer[]::new);
+        }
     }
 
     private record StaticProvider<T>(T val) implements Provider<T> {
@@ -0,0 +1,60 @@
+package vest.doctor.runtime;
+
+import vest.doctor.event.Coalesce;
+import vest.doctor.event.CoalescingConsumer;
+import vest.doctor.event.EventConsumer;
+import vest.doctor.scheduled.Interval;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Combines the events published to a {@link Coalesce} consumer within a window and delivers the result once the
+ * window closes.
+ */
+final class EventCoalescer implements EventConsumer<Object> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final EventConsumer<Object> delegate;
+    private final CoalescingConsumer<Object> coalescing;
+    private final Supplier<ScheduledExecutorService> scheduler;
+    private final long windowNanos;
+    private final Map<Object, Object> pending = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    EventCoalescer(EventConsumer<Object> consumer, EventConsumer<Object> delegate, Coalesce config, Supplier<ScheduledExecutorService> scheduler) {
+        this.delegate = delegate;
+        this.coalescing = consumer instanceof CoalescingConsumer<?> c ? (CoalescingConsumer<Object>) c : null;
+        this.scheduler = scheduler;
+        Interval window = new Interval(config.window());
+        this.windowNanos = window.getUnit().toNanos(window.getMagnitude());
+    }
+
+    @Override
+    public void accept(Object event) {
+        Object key = coalescing != null ? coalescing.coalesceKey(event) : null;
+        Object k = key != null ? key : NULL_KEY;
+        boolean[] opened = {false};
+        pending.compute(k, (ignored, existing) -> {
+            if (existing == null) {
+                opened[0] = true;
+                return event;
+            }
+            return coalescing != null ? coalescing.merge(existing, event) : event;
+        });
+        if (opened[0]) {
+            scheduler.get().schedule(() -> close(k), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void close(Object key) {
+        Object event = pending.remove(key);
+        if (event != null) {
+            delegate.accept(event);
+        }
+    }
+}
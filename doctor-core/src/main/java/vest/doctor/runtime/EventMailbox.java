@@ -0,0 +1,119 @@
+package vest.doctor.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vest.doctor.event.AsyncConsumer;
+import vest.doctor.event.EventConsumer;
+import vest.doctor.event.MailboxStats;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded mailbox in front of an {@link AsyncConsumer}. Published events are queued and drained by at most one
+ * task at a time on the consumer's executor, preserving publish order.
+ */
+final class EventMailbox implements EventConsumer<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(EventMailbox.class);
+    private static final int DRAIN_BATCH = 256;
+
+    private final EventConsumer<Object> consumer;
+    private final Supplier<? extends Executor> executor;
+    private final AsyncConsumer.OverflowPolicy overflow;
+    private final int capacity;
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Executor resolvedExecutor;
+
+    EventMailbox(EventConsumer<Object> consumer, AsyncConsumer config, Supplier<? extends Executor> executor) {
+        if (config.queueSize() < 1) {
+            throw new IllegalArgumentException("invalid queueSize for @AsyncConsumer on " + consumer.getClass().getName() + ": must be greater than 0");
+        }
+        this.consumer = consumer;
+        this.executor = executor;
+        this.overflow = config.overflow();
+        this.capacity = config.queueSize();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void accept(Object event) {
+        switch (overflow) {
+            case BLOCK -> {
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                    return;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!queue.offer(event)) {
+                    dropped.increment();
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+        }
+        scheduleDrain();
+    }
+
+    MailboxStats stats() {
+        return new MailboxStats(consumer.getClass().getName(), queue.size(), capacity, delivered.sum(), dropped.sum());
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor().execute(this::drain);
+            } catch (Throwable t) {
+                draining.set(false);
+                throw t;
+            }
+        }
+    }
+
+    private Executor executor() {
+        // resolved lazily, consumers are registered before all executors are guaranteed to be available
+        Executor e = resolvedExecutor;
+        if (e == null) {
+            e = executor.get();
+            resolvedExecutor = e;
+        }
+        return e;
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            Object event = queue.poll();
+            if (event == null) {
+                break;
+            }
+            delivered.increment();
+            try {
+                consumer.accept(event);
+            } catch (Throwable t) {
+                log.error("error delivering event {} to {}", event, consumer, t);
+            }
+        }
+        draining.set(false);
+        // events queued after the last poll (or left over from a full batch) need another drain
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
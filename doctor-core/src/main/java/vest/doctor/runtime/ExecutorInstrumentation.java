@@ -0,0 +1,109 @@
+package vest.doctor.runtime;
+
+import vest.doctor.ExecutorStats;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records task timings and rejections for the instrumented executors created by
+ * {@link ConfigurationDrivenExecutorServiceProvider}. Thread and queue gauges are read from the
+ * {@link ThreadPoolExecutor} when statistics are requested, so only the timings add overhead to tasks.
+ */
+final class ExecutorInstrumentation {
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    LatencyHistogram queueWait() {
+        return queueWait;
+    }
+
+    LatencyHistogram runTime() {
+        return runTime;
+    }
+
+    RejectedExecutionHandler counting(RejectedExecutionHandler handler) {
+        return (r, executor) -> {
+            rejected.increment();
+            handler.rejectedExecution(r, executor);
+        };
+    }
+
+    ExecutorStats stats(String name, ThreadPoolExecutor executor) {
+        return new ExecutorStats(name,
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                executor.getCorePoolSize(),
+                executor.getPoolSize(),
+                executor.getLargestPoolSize(),
+                executor.getCompletedTaskCount(),
+                rejected.sum(),
+                queueWait.snapshot(),
+                runTime.snapshot());
+    }
+
+    /**
+     * A thread pool that times each task from submission.
+     */
+    static final class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+        private final ExecutorInstrumentation instrumentation;
+
+        InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory, RejectedExecutionHandler handler, ExecutorInstrumentation instrumentation) {
+            super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, instrumentation.counting(handler));
+            this.instrumentation = instrumentation;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            super.execute(new TimedTask(command, System.nanoTime(), instrumentation));
+        }
+    }
+
+    /**
+     * A scheduled thread pool that times each task from when it was due.
+     */
+    static final class InstrumentedScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
+        private final ExecutorInstrumentation instrumentation;
+        private final ThreadLocal<long[]> started = ThreadLocal.withInitial(() -> new long[1]);
+
+        InstrumentedScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory, RejectedExecutionHandler handler, ExecutorInstrumentation instrumentation) {
+            super(corePoolSize, threadFactory, instrumentation.counting(handler));
+            this.instrumentation = instrumentation;
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            long now = System.nanoTime();
+            if (r instanceof RunnableScheduledFuture<?> task) {
+                instrumentation.queueWait.record(-task.getDelay(TimeUnit.NANOSECONDS));
+            }
+            started.get()[0] = now;
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            instrumentation.runTime.record(System.nanoTime() - started.get()[0]);
+        }
+    }
+
+    private record TimedTask(Runnable task, long submitted, ExecutorInstrumentation instrumentation) implements Runnable {
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            instrumentation.queueWait.record(start - submitted);
+            try {
+                task.run();
+            } finally {
+                instrumentation.runTime.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
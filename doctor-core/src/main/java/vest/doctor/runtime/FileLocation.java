@@ -9,6 +9,8 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
 
 /**
  * Represents a location for a file. Locations can be on the classpath, served by http(s) endpoints, or
@@ -48,6 +50,21 @@ public record FileLocation(String location) {
         }
     }
 
+    /**
+     * Get the local file system path for this location.
+     *
+     * @return the path of the file, or empty if the location is on the classpath or served by http(s) endpoints
+     */
+    public Optional<Path> localPath() {
+        if (location.startsWith(CLASSPATH) || location.startsWith(HTTP) || location.startsWith(HTTPS)) {
+            return Optional.empty();
+        } else if (location.startsWith(FILE)) {
+            return Optional.of(Path.of(location.substring(FILE.length())));
+        } else {
+            return Optional.of(Path.of(location));
+        }
+    }
+
     /**
      * Determine if this file location is valid by attempting to open a stream to the source.
      */
@@ -0,0 +1,377 @@
+package vest.doctor.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ScheduledExecutorService} backed by a hashed wheel timer. Scheduling and cancelling are O(1): new tasks
+ * and cancellations are handed to the timer thread through lock-free queues, and the timer thread places tasks in
+ * the wheel bucket for their deadline. Each tick the timer thread expires one bucket, handing the due tasks to the
+ * worker executor; task bodies never run on the timer thread.
+ * <p>
+ * Tasks fire at tick granularity, up to one tick after their deadline. Delayed and periodic tasks are discarded on
+ * shutdown and cancelled, like a {@link java.util.concurrent.ScheduledThreadPoolExecutor} that does not execute
+ * existing delayed tasks after shutdown; {@link #shutdownNow()} returns them.
+ */
+final class HashedWheelScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelScheduledExecutorService.class);
+    // the maximum number of new tasks moved into the wheel per tick, so a burst of scheduling can't stall the timer
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Supplier<? extends Executor> workerSupplier;
+    private final Queue<WheelTask<?>> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTask<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final List<Runnable> discarded = new ArrayList<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final Thread timer;
+    private final long startTime;
+    private volatile Executor worker;
+    private volatile boolean shutdown;
+
+    /**
+     * @param tickDuration   the duration of a tick
+     * @param unit           the unit of the tick duration
+     * @param ticksPerWheel  the number of buckets in the wheel, rounded up to a power of two
+     * @param workerSupplier supplies the executor for task bodies, resolved on first use
+     * @param threadFactory  the factory for the timer thread
+     */
+    HashedWheelScheduledExecutorService(long tickDuration, TimeUnit unit, int ticksPerWheel, Supplier<? extends Executor> workerSupplier, ThreadFactory threadFactory) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick duration must be greater than 0");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticks per wheel must be in the range (0, 2^30]");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        size = Math.max(1, size);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.workerSupplier = workerSupplier;
+        this.startTime = System.nanoTime();
+        this.timer = threadFactory.newThread(this::run);
+        this.timer.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(Objects.requireNonNull(command), null), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(Objects.requireNonNull(callable), triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
+        return enqueue(new WheelTask<>(Executors.callable(Objects.requireNonNull(command), null), triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay must be greater than 0");
+        }
+        return enqueue(new WheelTask<>(Executors.callable(Objects.requireNonNull(command), null), triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (shutdown) {
+            throw new RejectedExecutionException("executor has been shutdown");
+        }
+        worker().execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(timer);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        timer.interrupt();
+        try {
+            terminated.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (discarded) {
+            return new ArrayList<>(discarded);
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("executor has been shutdown");
+        }
+        pending.add(task);
+        if (shutdown && pending.remove(task)) {
+            // the timer thread may have already discarded the pending tasks
+            task.cancel(false);
+            throw new RejectedExecutionException("executor has been shutdown");
+        }
+        return task;
+    }
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    private Executor worker() {
+        Executor w = worker;
+        if (w == null) {
+            w = workerSupplier.get();
+            worker = w;
+        }
+        return w;
+    }
+
+    private void run() {
+        long tick = 0;
+        try {
+            while (!shutdown) {
+                long deadline = startTime + (tick + 1) * tickNanos;
+                long sleep;
+                while (!shutdown && (sleep = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, sleep);
+                }
+                if (shutdown) {
+                    break;
+                }
+                removeCancelled();
+                transferPending(tick);
+                expire(wheel[(int) (tick & mask)], System.nanoTime());
+                tick++;
+            }
+        } catch (Throwable t) {
+            log.error("hashed wheel timer failed", t);
+        } finally {
+            // delayed tasks are discarded and cancelled on shutdown
+            for (Bucket bucket : wheel) {
+                bucket.clear(pending);
+            }
+            discardPending();
+            terminated.countDown();
+        }
+    }
+
+    private void discardPending() {
+        WheelTask<?> task;
+        while ((task = pending.poll()) != null) {
+            if (task.cancel(false)) {
+                synchronized (discarded) {
+                    discarded.add(task);
+                }
+            }
+        }
+        cancelled.clear();
+    }
+
+    private void removeCancelled() {
+        WheelTask<?> task;
+        while ((task = cancelled.poll()) != null) {
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void transferPending(long tick) {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            WheelTask<?> task = pending.poll();
+            if (task == null) {
+                break;
+            }
+            if (task.isCancelled()) {
+                continue;
+            }
+            long deadlineTick = Math.max(tick, ceilDiv(task.deadline - startTime, tickNanos) - 1);
+            task.rounds = (deadlineTick - tick) / wheel.length;
+            wheel[(int) (deadlineTick & mask)].add(task);
+        }
+    }
+
+    private void expire(Bucket bucket, long now) {
+        WheelTask<?> task = bucket.head;
+        while (task != null) {
+            WheelTask<?> next = task.next;
+            if (task.isCancelled()) {
+                bucket.remove(task);
+            } else if (task.rounds <= 0 && task.deadline - now <= 0) {
+                bucket.remove(task);
+                dispatch(task);
+            } else if (task.rounds > 0) {
+                task.rounds--;
+            }
+            task = next;
+        }
+    }
+
+    private void dispatch(WheelTask<?> task) {
+        try {
+            worker().execute(task);
+        } catch (Throwable t) {
+            log.error("error dispatching scheduled task {}", task, t);
+            task.cancel(false);
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private final class WheelTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        // 0 for one-shot tasks, positive for fixed rate, negative for fixed delay
+        private final long period;
+        private volatile long deadline;
+        // wheel position; only accessed by the timer thread
+        private long rounds;
+        private Bucket bucket;
+        private WheelTask<?> prev;
+        private WheelTask<?> next;
+
+        WheelTask(Callable<V> callable, long deadline, long period) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public void run() {
+            if (period == 0) {
+                super.run();
+            } else if (runAndReset()) {
+                if (shutdown) {
+                    cancel(false);
+                    return;
+                }
+                deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+                pending.add(this);
+                if (shutdown && pending.remove(this)) {
+                    // the timer thread may have already discarded the pending tasks
+                    cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                HashedWheelScheduledExecutorService.this.cancelled.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    // a doubly linked list of tasks, only accessed by the timer thread
+    private static final class Bucket {
+        private WheelTask<?> head;
+        private WheelTask<?> tail;
+
+        void add(WheelTask<?> task) {
+            task.bucket = this;
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(WheelTask<?> task) {
+            if (task.bucket != this) {
+                return;
+            }
+            if (task.prev != null) {
+                task.prev.next = task.next;
+            } else {
+                head = task.next;
+            }
+            if (task.next != null) {
+                task.next.prev = task.prev;
+            } else {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        void clear(Queue<WheelTask<?>> into) {
+            WheelTask<?> task = head;
+            while (task != null) {
+                WheelTask<?> next = task.next;
+                remove(task);
+                if (!task.isCancelled()) {
+                    into.add(task);
+                }
+                task = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package vest.doctor.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vest.doctor.PartitionedExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PartitionedExecutor} implementation. Each partition has a lock-free task queue that is drained by at most
+ * one task at a time on a worker pool with one thread per partition.
+ */
+final class PartitionedExecutorService extends AbstractExecutorService implements PartitionedExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedExecutorService.class);
+    private static final int DRAIN_BATCH = 64;
+
+    private final ExecutorService workers;
+    private final Partition[] partitions;
+    private final AtomicInteger unkeyed = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    /**
+     * @param workers    the worker pool, should have (at least) as many threads as partitions
+     * @param partitions the number of partitions
+     */
+    PartitionedExecutorService(ExecutorService workers, int partitions) {
+        this.workers = workers;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition();
+        }
+    }
+
+    @Override
+    public void execute(Object key, Runnable command) {
+        Objects.requireNonNull(key, "the partition key can not be null");
+        partition(key.hashCode()).add(command);
+    }
+
+    @Override
+    public <T> Future<T> submit(Object key, Callable<T> task) {
+        RunnableFuture<T> future = newTaskFor(task);
+        execute(key, future);
+        return future;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        partition(unkeyed.getAndIncrement()).add(command);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        // partitions with queued tasks keep draining until they are empty
+        for (Partition partition : partitions) {
+            partition.scheduleDrain();
+        }
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        for (Partition partition : partitions) {
+            Runnable r;
+            while ((r = partition.queue.poll()) != null) {
+                pending.add(r);
+            }
+        }
+        workers.shutdownNow();
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    private Partition partition(int hash) {
+        int h = hash ^ (hash >>> 16);
+        return partitions[(h & 0x7FFFFFFF) % partitions.length];
+    }
+
+    private final class Partition implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        void add(Runnable command) {
+            Objects.requireNonNull(command);
+            if (shutdown) {
+                throw new RejectedExecutionException("executor has been shutdown");
+            }
+            queue.add(command);
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (Throwable t) {
+                    draining.set(false);
+                    throw t;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            // after shutdown the worker pool won't accept another drain, so finish the queue now
+            int limit = shutdown ? Integer.MAX_VALUE : DRAIN_BATCH;
+            for (int i = 0; i < limit; i++) {
+                Runnable r = queue.poll();
+                if (r == null) {
+                    break;
+                }
+                try {
+                    r.run();
+                } catch (Throwable t) {
+                    log.error("error running partitioned task {}", r, t);
+                }
+            }
+            draining.set(false);
+            // tasks added after the last poll (or left over from a full batch) need another drain
+            if (!queue.isEmpty()) {
+                try {
+                    scheduleDrain();
+                } catch (RejectedExecutionException e) {
+                    // shutdown raced with the drain, run the rest on this thread
+                    if (draining.compareAndSet(false, true)) {
+                        run();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -2,42 +2,88 @@ package vest.doctor.runtime;
 
 import jakarta.inject.Provider;
 import vest.doctor.ProviderRegistry;
+import vest.doctor.event.ConfigurationChanged;
 import vest.doctor.event.EventBus;
 import vest.doctor.event.ReloadConfiguration;
 
 import java.util.Objects;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.function.Supplier;
 
 /**
  * Internal use.
  * <p>
  * A properties/configuration trait that provides caching and reloading of processed property values.
+ * <p>
+ * Generated implementations hold each converted property value in a volatile {@link PropertyValue} field,
+ * loaded on first use via {@link #load(String, Getter)}. When the configuration is reloaded, or a watched
+ * configuration file changes, {@link #reloadProperties()} is called, and only the fields whose configuration value changed (checked with
+ * {@link #isStale(PropertyValue)}) are cleared to be loaded again.
  */
 public abstract class PropertiesTrait {
-    private static final String NO_VALUE = "<<novalue>>";
+
+    /**
+     * A converted property value along with the configuration value it was converted from.
+     *
+     * @param property     the property name as declared
+     * @param propertyName the property name, with placeholders resolved
+     * @param source       the configuration value the property was converted from
+     * @param value        the converted value
+     */
+    public record PropertyValue(String property, String propertyName, String source, Object value) {
+    }
+
+    /**
+     * Converts the configuration value of a property.
+     */
+    @FunctionalInterface
+    public interface Getter {
+        Object get(String propertyName);
+    }
+
     protected final ProviderRegistry providerRegistry;
-    protected final ConcurrentSkipListMap<String, Object> propertiesCache;
 
     protected PropertiesTrait(ProviderRegistry providerRegistry) {
         this.providerRegistry = providerRegistry;
-        this.propertiesCache = new ConcurrentSkipListMap<>();
         providerRegistry.getProviderOpt(EventBus.class)
                 .map(Provider::get)
-                .ifPresent(bus -> bus.addConsumer(ReloadConfiguration.class, this::clearCache));
+                .ifPresent(bus -> {
+                    bus.addConsumer(ReloadConfiguration.class, reload -> reloadProperties());
+                    bus.addConsumer(ConfigurationChanged.class, changed -> reloadProperties());
+                });
+    }
+
+    /**
+     * Load the value for a property.
+     *
+     * @param property the property name, placeholders will be resolved
+     * @param getter   converts the configuration value for the property
+     * @return the property value
+     */
+    protected PropertyValue load(String property, Getter getter) {
+        String name = providerRegistry.resolvePlaceholders(property);
+        return new PropertyValue(property, name, providerRegistry.configuration().get(name), getter.get(name));
     }
 
-    @SuppressWarnings("unchecked")
-    protected <T> T cached(String cacheKey, Supplier<Object> getter) {
-        Object v = propertiesCache.computeIfAbsent(cacheKey, (k) -> Objects.requireNonNullElse(getter.get(), NO_VALUE));
-        if (v == NO_VALUE) {
-            return null;
-        } else {
-            return (T) v;
-        }
+    /**
+     * Check whether the configuration value a property was loaded from has changed.
+     *
+     * @param value the loaded property value, may be null
+     * @return true if the property needs to be loaded again
+     */
+    protected boolean isStale(PropertyValue value) {
+        return value != null
+               && (!value.propertyName().equals(providerRegistry.resolvePlaceholders(value.property()))
+                   || !Objects.equals(value.source(), providerRegistry.configuration().get(value.propertyName())));
     }
 
-    private void clearCache(ReloadConfiguration reload) {
-        propertiesCache.clear();
+    /**
+     * The current configuration version, see {@link vest.doctor.conf.ConfigurationFacade#version()}.
+     */
+    protected long configurationVersion() {
+        return providerRegistry.configuration().version();
     }
+
+    /**
+     * Clear the loaded values of the properties that have changed.
+     */
+    protected abstract void reloadProperties();
 }
@@ -0,0 +1,73 @@
+package vest.doctor.runtime;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work queue for a {@link ThreadPoolExecutor} that grows the pool to its maximum size before queueing tasks.
+ * <p>
+ * A plain {@link ThreadPoolExecutor} only adds threads beyond the core size when its queue refuses a task, so with
+ * an unbounded queue the maximum pool size never takes effect. This queue refuses tasks while no thread is idle and
+ * the pool can still grow, causing the executor to start a new thread; once the pool is at its maximum, tasks are
+ * queued up to the capacity and then rejected.
+ */
+final class ThreadPoolTaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private final AtomicInteger idle = new AtomicInteger();
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * @param capacity the maximum number of queued tasks, {@link Integer#MAX_VALUE} for unbounded
+     */
+    ThreadPoolTaskQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Attach the executor using this queue, must be called before tasks are submitted.
+     *
+     * @param executor the executor
+     * @param handler  the rejected execution handler for tasks that can not be queued
+     */
+    void attach(ThreadPoolExecutor executor, RejectedExecutionHandler handler) {
+        this.executor = executor;
+        executor.setRejectedExecutionHandler((r, e) -> {
+            // the pool filled up between refusing the task and trying to add a thread, queue it after all
+            if (e.isShutdown() || !super.offer(r)) {
+                handler.rejectedExecution(r, e);
+            }
+        });
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        ThreadPoolExecutor e = executor;
+        if (e != null && idle.get() == 0 && e.getPoolSize() < e.getMaximumPoolSize()) {
+            return false;
+        }
+        return super.offer(runnable);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        idle.incrementAndGet();
+        try {
+            return super.take();
+        } finally {
+            idle.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        idle.incrementAndGet();
+        try {
+            return super.poll(timeout, unit);
+        } finally {
+            idle.decrementAndGet();
+        }
+    }
+}
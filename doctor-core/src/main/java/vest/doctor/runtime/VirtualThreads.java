@@ -0,0 +1,70 @@
+package vest.doctor.runtime;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual thread executors. The virtual thread API is looked up reflectively so that the library
+ * continues to compile and run against Java versions without it; attempting to create a virtual thread executor
+ * on such a version fails with an {@link UnsupportedOperationException}; check {@link #isSupported()} first to avoid
+ * that.
+ */
+public final class VirtualThreads {
+
+    private static final boolean SUPPORTED = probe();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Check whether virtual threads can be created: the running java version has the virtual thread API and, on
+     * versions where it is a preview feature, preview features are enabled.
+     *
+     * @return true if virtual thread executors are supported
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    private static boolean probe() {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     *
+     * @param namePrefix               the prefix of the thread names, a counter starting at 0 is appended
+     * @param uncaughtExceptionHandler the uncaught exception handler for the threads
+     * @return a new thread-per-task executor
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix, Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            builder = builderType.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(builder, uncaughtExceptionHandler);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new UnsupportedOperationException("virtual threads are not supported by this java version: " + Runtime.version(), e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException uoe) {
+                // preview feature not enabled
+                throw uoe;
+            }
+            throw new IllegalStateException("error creating virtual thread executor", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("error creating virtual thread executor", e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package vest.doctor.scheduled;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
@@ -58,6 +62,10 @@ public final class Cron {
 
     private static final Pattern INTEGER_REGEX = Pattern.compile("\\d+");
     private static final Pattern RANGE_REGEX = Pattern.compile("([a-zA-Z\\d]+)-([a-zA-Z\\d]+)");
+    // every seventh day of a month, starting from the 1st
+    private static final long WEEKLY = (1L << 1) | (1L << 8) | (1L << 15) | (1L << 22) | (1L << 29);
+    // give up after this many years without a match, e.g. for "0 0 0 31 FEB *"
+    private static final int MAX_YEARS = 400;
 
     public enum CronType {
         SECONDS(0, 59, null) {
@@ -203,12 +211,13 @@ public final class Cron {
     }
 
     private final String expression;
-    private final int[] seconds;
-    private final int[] minutes;
-    private final int[] hours;
-    private final int[] dayOfMonth;
-    private final int[] month;
-    private final int[] dayOfWeek;
+    // each field is compiled to a mask with the bit of every allowed value set
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long dayOfMonth;
+    private final long month;
+    private final long dayOfWeek;
 
     public Cron(String cronExpression) {
         this.expression = translateMacro(cronExpression);
@@ -217,12 +226,12 @@ public final class Cron {
             throw new IllegalArgumentException("invalid cron expression [" + cronExpression + "]; expression must have 6 segments, white space delimited");
         }
 
-        seconds = CronType.SECONDS.parse(split[0].trim());
-        minutes = CronType.MINUTES.parse(split[1].trim());
-        hours = CronType.HOURS.parse(split[2].trim());
-        dayOfMonth = CronType.DAY_OF_MONTH.parse(split[3].trim());
-        month = CronType.MONTH.parse(split[4].trim());
-        dayOfWeek = CronType.DAY_OF_WEEK.parse(split[5].trim());
+        seconds = compile(CronType.SECONDS, split[0].trim());
+        minutes = compile(CronType.MINUTES, split[1].trim());
+        hours = compile(CronType.HOURS, split[2].trim());
+        dayOfMonth = compile(CronType.DAY_OF_MONTH, split[3].trim());
+        month = compile(CronType.MONTH, split[4].trim());
+        dayOfWeek = compile(CronType.DAY_OF_WEEK, split[5].trim());
     }
 
     public long nextFireTime() {
@@ -230,32 +239,97 @@ public final class Cron {
     }
 
     public long nextFireTime(long fromEpochMillis) {
-        ZonedDateTime next = Instant.ofEpochMilli(fromEpochMillis + 1000)
-                .atZone(ZoneId.systemDefault());
-        for (int i = 0; i < 15; i++) {
-            long starting = next.toEpochSecond();
+        return nextFireTime(fromEpochMillis, ZoneId.systemDefault());
+    }
 
-            if (seconds != null) {
-                next = CronType.SECONDS.adjust(next, seconds);
-            }
-            if (minutes != null) {
-                next = CronType.MINUTES.adjust(next, minutes);
+    /**
+     * Calculate the next time this cron expression fires, at least one second after the given time. The
+     * millisecond of the second is carried over from the given time.
+     *
+     * @param fromEpochMillis the time to calculate from
+     * @param zone            the time zone the expression is evaluated in
+     * @return the next fire time in epoch milliseconds
+     */
+    public long nextFireTime(long fromEpochMillis, ZoneId zone) {
+        long start = fromEpochMillis + 1000;
+        long millis = Math.floorMod(start, 1000);
+        long startSecond = Math.floorDiv(start, 1000);
+        LocalDateTime local = LocalDateTime.ofEpochSecond(startSecond, 0, zone.getRules().getOffset(Instant.ofEpochSecond(startSecond)));
+
+        int year = local.getYear();
+        int mon = local.getMonthValue();
+        int day = local.getDayOfMonth();
+        int hour = local.getHour();
+        int minute = local.getMinute();
+        int second = local.getSecond();
+        int lastYear = year + MAX_YEARS;
+
+        while (year <= lastYear) {
+            int m = next(month, mon);
+            if (m < 0) {
+                year++;
+                mon = 1;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            } else if (m != mon) {
+                mon = m;
+                day = 1;
+                hour = minute = second = 0;
             }
-            if (hours != null) {
-                next = CronType.HOURS.adjust(next, hours);
+
+            int d = next(days(year, mon), day);
+            if (d < 0) {
+                mon++;
+                if (mon > 12) {
+                    year++;
+                    mon = 1;
+                }
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            } else if (d != day) {
+                day = d;
+                hour = minute = second = 0;
             }
-            if (dayOfWeek != null) {
-                next = CronType.DAY_OF_WEEK.adjust(next, dayOfWeek);
+
+            int h = next(hours, hour);
+            if (h < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            } else if (h != hour) {
+                hour = h;
+                minute = second = 0;
             }
-            if (dayOfMonth != null) {
-                next = CronType.DAY_OF_MONTH.adjust(next, dayOfMonth);
+
+            int mi = next(minutes, minute);
+            if (mi < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            } else if (mi != minute) {
+                minute = mi;
+                second = 0;
             }
-            if (month != null) {
-                next = CronType.MONTH.adjust(next, month);
+
+            int s = next(seconds, second);
+            if (s < 0) {
+                minute++;
+                second = 0;
+                continue;
             }
-            if (starting == next.toEpochSecond()) {
-                return next.toInstant().toEpochMilli();
+
+            ZonedDateTime fire = ZonedDateTime.ofLocal(LocalDateTime.of(year, mon, day, hour, minute, s), zone, null);
+            if (fire.toEpochSecond() < startSecond) {
+                // the local time repeats when clocks are set back, use the repeated time
+                fire = fire.withLaterOffsetAtOverlap();
+                if (fire.toEpochSecond() < startSecond) {
+                    second = s + 1;
+                    continue;
+                }
             }
+            return fire.toEpochSecond() * 1000 + millis;
         }
         throw new RuntimeException("failed to find the next scheduled time, this is a bug or the cron expression is too specific/complicated: " + expression);
     }
@@ -289,8 +363,49 @@ public final class Cron {
     }
 
     private static boolean isLeapYear(ZonedDateTime date) {
-        int year = date.getYear();
-        return (year % 400 == 0) || ((year % 4 == 0) && (year % 100 != 0));
+        return Year.isLeap(date.getYear());
+    }
+
+    private static long compile(CronType type, String field) {
+        int[] values = type.parse(field);
+        long mask = 0;
+        if (values == null) {
+            for (int i = type.rangeStart; i <= type.rangeEnd; i++) {
+                mask |= 1L << i;
+            }
+        } else {
+            for (int value : values) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    // the smallest value in the mask greater than or equal to from, or -1 if there isn't one
+    private static int next(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long candidates = mask & (-1L << from);
+        return candidates == 0 ? -1 : Long.numberOfTrailingZeros(candidates);
+    }
+
+    // the days of the given month matching both the day of month and day of week fields
+    private long days(int year, int mon) {
+        int length = Month.of(mon).length(Year.isLeap(year));
+        long inMonth = (-1L >>> (63 - length)) & ~1L;
+        // weekday of the 1st, 0 for Monday
+        int firstDayOfWeek = (int) Math.floorMod(LocalDate.of(year, mon, 1).toEpochDay() + 3, 7);
+        long weekdays = 0;
+        long remaining = dayOfWeek;
+        while (remaining != 0) {
+            int dow = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            // shift the weekly pattern to the first day of the month falling on this weekday
+            int firstDay = Math.floorMod(dow - 1 - firstDayOfWeek, 7) + 1;
+            weekdays |= WEEKLY << (firstDay - 1);
+        }
+        return dayOfMonth & weekdays & inMonth;
     }
 
     private static String translateMacro(String expression) {
@@ -14,6 +14,8 @@ import java.util.concurrent.TimeUnit;
  * provided by the {@link ProviderRegistry}.
  * <p>
  * Only one of {@link #interval()} or {@link #cron()} may be set.
+ * <p>
+ * Runs are recorded in the {@link vest.doctor.ScheduledTaskMetrics}.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -31,6 +33,55 @@ public @interface Scheduled {
         FIXED_RATE
     }
 
+    /**
+     * What to do when a fire time arrives while a previous run is still in progress.
+     * Does not apply to {@link Type#FIXED_DELAY} schedules, which never overlap.
+     */
+    enum Overlap {
+        /**
+         * don't run for the fire time, it is counted as skipped
+         */
+        SKIP,
+        /**
+         * run for the fire time once the runs before it have completed
+         */
+        QUEUE,
+        /**
+         * run for the fire time immediately, alongside the runs in progress
+         */
+        CONCURRENT
+    }
+
+    /**
+     * What to do when fire times were missed, e.g. because the JVM or the scheduler stalled.
+     * Does not apply to {@link Type#FIXED_DELAY} schedules.
+     */
+    enum Misfire {
+        /**
+         * run once for the late fire time, and count the rest of the missed fire times as skipped
+         */
+        FIRE_ONCE,
+        /**
+         * run once for each missed fire time, back to back
+         */
+        CATCH_UP
+    }
+
+    /**
+     * How the offset added by {@link #jitter()} is chosen.
+     */
+    enum Jitter {
+        /**
+         * a random offset chosen when the method is scheduled
+         */
+        RANDOM,
+        /**
+         * an offset derived from a hash of the host name and the method name, so that each host fires at a
+         * different, but stable, time
+         */
+        HOST
+    }
+
     /**
      * The interval for the schedule. See {@link Interval} for details on the format.
      */
@@ -51,4 +102,28 @@ public @interface Scheduled {
      * A negative value indicates that the method will be scheduled indefinitely.
      */
     long executionLimit() default -1;
+
+    /**
+     * The policy for fire times that arrive while a previous run is still in progress.
+     */
+    Overlap overlap() default Overlap.SKIP;
+
+    /**
+     * The policy for fire times that were missed. Note that {@link Type#FIXED_RATE} schedules used to run missed
+     * fire times back to back, like {@link java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate}; set
+     * this to {@link Misfire#CATCH_UP} to keep that behavior.
+     */
+    Misfire misfire() default Misfire.FIRE_ONCE;
+
+    /**
+     * The maximum offset added to every fire time, spreading out methods that would otherwise fire at the same
+     * moment; e.g. "30s". See {@link Interval} for details on the format. Fire times are not offset if not set.
+     * For {@link Type#FIXED_DELAY} schedules only the first fire time is offset, the delay between runs is unchanged.
+     */
+    String jitter() default "";
+
+    /**
+     * How the {@link #jitter()} offset is chosen.
+     */
+    Jitter jitterType() default Jitter.RANDOM;
 }
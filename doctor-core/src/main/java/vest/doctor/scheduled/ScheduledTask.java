@@ -0,0 +1,219 @@
+package vest.doctor.scheduled;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import vest.doctor.ProviderRegistry;
+import vest.doctor.ScheduledTaskMetrics;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.InetAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Base for the scheduled method wrappers. Each fire time is scheduled as a one-shot task that schedules the
+ * following fire time before running the method, so the overlap and misfire policies are applied consistently
+ * regardless of the scheduler implementation. Fire times are in the clock of the subclass, see {@link #now()}, and
+ * do not include the jitter offset, which is added when each fire time is scheduled. Fixed-delay schedules only
+ * offset their first fire time, since offsetting every run would lengthen the delay between runs.
+ */
+abstract class ScheduledTask<T> implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTask.class);
+
+    private final ProviderRegistry providerRegistry;
+    private final WeakReference<T> ref;
+    private final String name;
+    private final AtomicLong executionLimit;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final Scheduled.Overlap overlap;
+    private final Scheduled.Misfire misfire;
+    private final BiConsumer<ProviderRegistry, T> execute;
+    private final ScheduledTaskMetrics.Task metrics;
+    private volatile long jitterNanos;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Queue<Long> backlog = new ConcurrentLinkedQueue<>();
+    private volatile long fireTime;
+    private volatile ScheduledFuture<?> future;
+    private volatile boolean cancelled;
+
+    ScheduledTask(ProviderRegistry providerRegistry, T val, String name, long executions, ScheduledExecutorService scheduledExecutorService, Scheduled.Overlap overlap, Scheduled.Misfire misfire, Interval jitter, Scheduled.Jitter jitterType, BiConsumer<ProviderRegistry, T> execute) {
+        this.providerRegistry = providerRegistry;
+        this.ref = new WeakReference<>(val);
+        this.name = name;
+        this.executionLimit = executions > 0 ? new AtomicLong(executions) : null;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.overlap = overlap;
+        this.misfire = misfire;
+        this.execute = execute;
+        this.metrics = providerRegistry.getInstance(ScheduledTaskMetrics.class).task(name);
+        this.jitterNanos = jitter != null ? jitterNanos(name, jitter.getUnit().toNanos(jitter.getMagnitude()), jitterType) : 0;
+    }
+
+    static long jitterNanos(String name, long maxNanos, Scheduled.Jitter jitterType) {
+        if (maxNanos <= 0) {
+            return 0;
+        }
+        return switch (jitterType) {
+            case RANDOM -> ThreadLocalRandom.current().nextLong(maxNanos);
+            case HOST -> {
+                // String.hashCode is stable across JVMs, spread it over the full range before reducing
+                long hash = (HostName.NAME + '/' + name).hashCode() * 0x9E3779B97F4A7C15L;
+                yield Math.floorMod(hash ^ (hash >>> 32), maxNanos);
+            }
+        };
+    }
+
+    /**
+     * @return the current time in the clock of the fire times
+     */
+    abstract long now();
+
+    /**
+     * @return the nanoseconds until the given fire time
+     */
+    abstract long delayNanos(long fireTime);
+
+    /**
+     * @return the first fire time after the given fire time
+     */
+    abstract long nextFireTime(long fireTime);
+
+    /**
+     * @return true if the next fire time is calculated from the end of each run
+     */
+    abstract boolean fixedDelay();
+
+    final void start() {
+        schedule(nextFireTime(now()));
+    }
+
+    @Override
+    public final void run() {
+        T t = ref.get();
+        if (t == null || cancelled) {
+            cancel();
+            return;
+        }
+        long due = fireTime;
+        if (fixedDelay()) {
+            runOnce(t, due);
+            jitterNanos = 0;
+            schedule(nextFireTime(now()));
+            return;
+        }
+
+        long next = nextFireTime(due);
+        if (misfire == Scheduled.Misfire.FIRE_ONCE) {
+            while (delayNanos(next) + jitterNanos <= 0) {
+                metrics.skipped();
+                next = nextFireTime(next);
+            }
+        }
+        schedule(next);
+
+        switch (overlap) {
+            case SKIP -> {
+                if (running.compareAndSet(false, true)) {
+                    try {
+                        runOnce(t, due);
+                    } finally {
+                        running.set(false);
+                    }
+                } else {
+                    metrics.skipped();
+                }
+            }
+            case QUEUE -> {
+                backlog.add(due);
+                drain(t);
+            }
+            case CONCURRENT -> runOnce(t, due);
+        }
+    }
+
+    private void drain(T t) {
+        // fire times queued while another thread was draining are picked up by the re-check
+        while (!backlog.isEmpty() && running.compareAndSet(false, true)) {
+            try {
+                Long due;
+                while (!cancelled && (due = backlog.poll()) != null) {
+                    runOnce(t, due);
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private void runOnce(T t, long due) {
+        if (cancelled) {
+            return;
+        }
+        // claim the execution before running so concurrent runs can't exceed the limit
+        long remaining = executionLimit != null ? executionLimit.decrementAndGet() : 1;
+        if (remaining < 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        metrics.started(-(delayNanos(due) + jitterNanos));
+        try {
+            execute.accept(providerRegistry, t);
+        } catch (Throwable error) {
+            log.error("error running scheduled task {}", name, error);
+        } finally {
+            metrics.completed(System.nanoTime() - start);
+        }
+        if (remaining == 0) {
+            cancel();
+        }
+    }
+
+    private void schedule(long next) {
+        if (cancelled) {
+            return;
+        }
+        fireTime = next;
+        try {
+            future = scheduledExecutorService.schedule(this, delayNanos(next) + jitterNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("scheduler rejected scheduled task {}, it will not run again", name);
+            cancel();
+        }
+    }
+
+    private void cancel() {
+        cancelled = true;
+        ref.clear();
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    private static final class HostName {
+        private static final String NAME = resolve();
+
+        private static String resolve() {
+            String env = System.getenv("HOSTNAME");
+            if (env != null && !env.isBlank()) {
+                return env;
+            }
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                log.warn("could not determine the host name for scheduled task jitter", e);
+                return "localhost";
+            }
+        }
+    }
+}
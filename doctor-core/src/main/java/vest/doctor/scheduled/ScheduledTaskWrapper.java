@@ -2,56 +2,48 @@ package vest.doctor.scheduled;
 
 import vest.doctor.ProviderRegistry;
 
-import java.lang.ref.WeakReference;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 /**
  * Used internally to support running interval scheduled methods.
  */
-public final class ScheduledTaskWrapper<T> implements Runnable {
-
-    public static <T> void run(ProviderRegistry providerRegistry, T val, long executions, Interval interval, ScheduledExecutorService ses, boolean fixedRate, BiConsumer<ProviderRegistry, T> execute) {
-        ScheduledTaskWrapper<T> wrapper = new ScheduledTaskWrapper<>(providerRegistry, val, executions, execute);
-        if (fixedRate) {
-            wrapper.future = ses.scheduleAtFixedRate(wrapper, interval.getMagnitude(), interval.getMagnitude(), interval.getUnit());
-        } else {
-            wrapper.future = ses.scheduleWithFixedDelay(wrapper, interval.getMagnitude(), interval.getMagnitude(), interval.getUnit());
+public final class ScheduledTaskWrapper<T> extends ScheduledTask<T> {
+
+    public static <T> void run(ProviderRegistry providerRegistry, T val, String name, long executions, Interval interval, ScheduledExecutorService ses, Scheduled.Type type, Scheduled.Overlap overlap, Scheduled.Misfire misfire, Interval jitter, Scheduled.Jitter jitterType, BiConsumer<ProviderRegistry, T> execute) {
+        ScheduledTaskWrapper<T> wrapper = new ScheduledTaskWrapper<>(providerRegistry, val, name, executions, interval, ses, type, overlap, misfire, jitter, jitterType, execute);
+        wrapper.start();
+    }
+
+    private final long periodNanos;
+    private final Scheduled.Type type;
+
+    private ScheduledTaskWrapper(ProviderRegistry providerRegistry, T val, String name, long executions, Interval interval, ScheduledExecutorService ses, Scheduled.Type type, Scheduled.Overlap overlap, Scheduled.Misfire misfire, Interval jitter, Scheduled.Jitter jitterType, BiConsumer<ProviderRegistry, T> execute) {
+        super(providerRegistry, val, name, executions, ses, overlap, misfire, jitter, jitterType, execute);
+        this.periodNanos = interval.getUnit().toNanos(interval.getMagnitude());
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("the interval for scheduled task " + name + " must be greater than 0");
         }
+        this.type = type;
     }
 
-    private final ProviderRegistry providerRegistry;
-    private final WeakReference<T> ref;
-    private final AtomicLong executionLimit;
-    private final BiConsumer<ProviderRegistry, T> execute;
-    private ScheduledFuture<?> future;
-
-    private ScheduledTaskWrapper(ProviderRegistry providerRegistry, T val, long executions, BiConsumer<ProviderRegistry, T> execute) {
-        this.providerRegistry = providerRegistry;
-        this.ref = new WeakReference<>(val);
-        this.execute = execute;
-        this.executionLimit = executions > 0 ? new AtomicLong(executions) : null;
+    @Override
+    long now() {
+        return System.nanoTime();
     }
 
     @Override
-    public void run() {
-        T t = ref.get();
-        if (t != null) {
-            execute.accept(providerRegistry, t);
-            if (executionLimit != null && executionLimit.decrementAndGet() <= 0) {
-                ref.clear();
-                cancel();
-            }
-        } else {
-            cancel();
-        }
+    long delayNanos(long fireTime) {
+        return fireTime - System.nanoTime();
     }
 
-    private void cancel() {
-        if (future != null) {
-            future.cancel(true);
-        }
+    @Override
+    long nextFireTime(long fireTime) {
+        return fireTime + periodNanos;
+    }
+
+    @Override
+    boolean fixedDelay() {
+        return type == Scheduled.Type.FIXED_DELAY;
     }
-}
\ No newline at end of file
+}
@@ -3,9 +3,18 @@ package vest.doctor.conf;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigurationTest extends Assert {
 
@@ -53,6 +62,117 @@ public class ConfigurationTest extends Assert {
         assertEquals(prefix.get("threads"), "1");
     }
 
+    @Test
+    public void prefixIndex() {
+        ConfigurationFacade facade = new CompositeConfigurationFacade()
+                .addSource(new MapConfigurationSource(Map.of(
+                        "executors.default.threads", "1",
+                        "executors.default.type", "fixed",
+                        "executors.background.threads", "2",
+                        "executors.io", "3",
+                        "executorsx.other", "4",
+                        "http.port", "8080",
+                        "odd..segment", "5")));
+        assertEquals(Set.copyOf(facade.getSubGroups("executors.")), Set.of("default", "background", "io"));
+        assertEquals(Set.copyOf(facade.getSubGroups("executors")), Set.of(".default", ".background", ".io", "x"));
+        assertEquals(Set.copyOf(facade.getSubGroups("executors.", "s")), Set.of("default.thread", "default.type", "background.thread", "io"));
+        assertEquals(Set.copyOf(facade.getSubGroups("odd.")), Set.of(".segment"));
+        assertEquals(Set.copyOf(facade.getSubGroups("")), Set.of("executors", "executorsx", "http", "odd"));
+        assertEquals(facade.getSubGroups("missing."), Set.of());
+
+        assertEquals(Set.copyOf(facade.propertyNames("executors.def")), Set.of("executors.default.threads", "executors.default.type"));
+        assertEquals(Set.copyOf(facade.propertyNames("executors")), Set.of("executors.default.threads", "executors.default.type", "executors.background.threads", "executors.io", "executorsx.other"));
+        assertEquals(Set.copyOf(facade.propertyNames("")), Set.copyOf(facade.propertyNames()));
+        assertEquals(facade.propertyNames("nope"), List.of());
+
+        ConfigurationFacade prefixed = facade.prefix("executors.");
+        assertEquals(Set.copyOf(prefixed.getSubGroups("default.")), Set.of("threads", "type"));
+        assertEquals(Set.copyOf(prefixed.propertyNames()), Set.of("executors.default.threads", "executors.default.type", "executors.background.threads", "executors.io"));
+    }
+
+    @Test
+    public void snapshot() {
+        Map<String, String> values = new HashMap<>(Map.of(
+                "host", "localhost",
+                "url", "http://${host}:${port:8080}/",
+                "missing", "${nope}",
+                "loop", "${loop}"));
+        ConfigurationFacade facade = new CompositeConfigurationFacade()
+                .addSource(new MapConfigurationSource(values));
+        assertEquals(facade.get("url"), "http://localhost:8080/");
+        expectThrows(IllegalArgumentException.class, () -> facade.get("missing"));
+        expectThrows(IllegalArgumentException.class, () -> facade.get("loop"));
+
+        long version = facade.version();
+        values.put("host", "example.com");
+        assertEquals(facade.get("url"), "http://localhost:8080/");
+        assertEquals(facade.version(), version);
+        facade.reload();
+        assertEquals(facade.get("url"), "http://example.com:8080/");
+        assertTrue(facade.version() > version);
+    }
+
+    @Test
+    public void snapshotMiss() {
+        ConfigurationFacade facade = new CompositeConfigurationFacade()
+                .addSource(new SystemPropertiesConfigurationSource())
+                .addSource(new ConfigurationSource() {
+                    @Override
+                    public String get(String propertyName) {
+                        return propertyName.startsWith("dynamic.") ? "${snapshot.miss.host}:" + propertyName.substring(8) : null;
+                    }
+
+                    @Override
+                    public Collection<String> propertyNames() {
+                        return List.of();
+                    }
+
+                    @Override
+                    public void reload() {
+                    }
+                });
+        assertNull(facade.get("snapshot.miss.host"));
+        System.setProperty("snapshot.miss.host", "localhost");
+        try {
+            assertEquals(facade.get("snapshot.miss.host"), "localhost");
+            assertEquals(facade.get("dynamic.8080"), "localhost:8080");
+            assertEquals(facade.getList("dynamic.1"), List.of("localhost:1"));
+        } finally {
+            System.clearProperty("snapshot.miss.host");
+        }
+    }
+
+    @Test
+    public void watch() throws Exception {
+        Path file = Files.createTempFile("doctor-watch", ".props");
+        Files.writeString(file, "a = 1\nb = 2\nc = 3\n");
+        StructuredConfigurationSource source = new StructuredConfigurationSource("file:" + file);
+        MapConfigurationSource other = new MapConfigurationSource(Map.of("d", "4"));
+        ConfigurationFacade facade = new CompositeConfigurationFacade()
+                .addSource(source)
+                .addSource(other);
+        assertEquals(facade.reload(other), Set.of());
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(facade, () -> scheduler, 50, TimeUnit.MILLISECONDS, (s, changed) -> changes.add(changed))) {
+            assertEquals(watcher.directories(), Set.of(file.toAbsolutePath().getParent()));
+            Files.writeString(file, "a = 1\nb = two\nd = 5\n");
+            assertEquals(changes.poll(10, TimeUnit.SECONDS), Set.of("b", "c", "d"));
+            assertEquals(facade.get("b"), "two");
+            assertNull(facade.get("c"));
+            assertEquals(facade.get("d"), "5");
+
+            // a broken file keeps the previous properties
+            Files.writeString(file, "a {\n");
+            assertNull(changes.poll(500, TimeUnit.MILLISECONDS));
+            assertEquals(facade.get("b"), "two");
+        } finally {
+            scheduler.shutdownNow();
+            Files.deleteIfExists(file);
+        }
+    }
+
     @Test
     public void audit() {
         CompositeConfigurationFacade comp = (CompositeConfigurationFacade) conf;
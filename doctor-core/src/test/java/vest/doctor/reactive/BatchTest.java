@@ -0,0 +1,189 @@
+package vest.doctor.reactive;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Test
+public class BatchTest extends Assert {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<Integer> numbers = IntStream.range(0, 10).boxed().toList();
+
+    @AfterClass(alwaysRun = true)
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void buffer() {
+        List<List<Integer>> result = Rx.each(numbers)
+                .buffer(4)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9)));
+    }
+
+    public void bufferEmpty() {
+        List<List<Object>> result = Rx.empty()
+                .buffer(4)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of());
+    }
+
+    public void bufferError() {
+        CompletableFuture<List<Integer>> future = Rx.each(numbers)
+                .observe(i -> {
+                    if (i == 5) {
+                        throw new IllegalStateException("fail");
+                    }
+                })
+                .buffer(4)
+                .map(l -> l.get(0))
+                .collect(Collectors.toList())
+                .subscribe();
+        CompletionException e = expectThrows(CompletionException.class, future::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    public void bufferMaxDelay() throws Exception {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        List<List<Integer>> received = new CopyOnWriteArrayList<>();
+        CompletableFuture<List<Integer>> future = Rx.from(publisher)
+                .buffer(100, Duration.ofMillis(20), scheduler)
+                .observe(received::add)
+                .subscribe();
+        publisher.submit(1);
+        publisher.submit(2);
+        waitFor(() -> received.size() == 1);
+        assertEquals(received, List.of(List.of(1, 2)));
+
+        publisher.submit(3);
+        publisher.close();
+        future.join();
+        assertEquals(received, List.of(List.of(1, 2), List.of(3)));
+    }
+
+    public void bufferDemand() throws Exception {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        List<List<Integer>> received = new CopyOnWriteArrayList<>();
+        AtomicInteger upstreamItems = new AtomicInteger();
+        Rx.from(publisher)
+                .observe(i -> upstreamItems.incrementAndGet())
+                .buffer(3)
+                .observe(received::add)
+                .subscribe(2);
+        for (int i = 0; i < 20; i++) {
+            publisher.submit(i);
+        }
+        waitFor(() -> received.size() == 2);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(received, List.of(List.of(0, 1, 2), List.of(3, 4, 5)));
+        assertEquals(upstreamItems.get(), 6);
+        publisher.close();
+    }
+
+    public void window() {
+        List<List<Integer>> result = Rx.each(numbers)
+                .window(3)
+                .mapFuture(w -> w.collect(Collectors.toList()).subscribe())
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8), List.of(9)));
+    }
+
+    public void windowMaxDelay() throws Exception {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        List<CompletableFuture<List<Integer>>> windows = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> future = Rx.from(publisher)
+                .window(100, Duration.ofMillis(20), scheduler)
+                .observe(w -> windows.add(w.collect(Collectors.toList()).subscribe()))
+                .subscribe();
+        publisher.submit(1);
+        publisher.submit(2);
+        waitFor(() -> windows.size() == 1 && windows.get(0).isDone());
+        assertEquals(windows.get(0).join(), List.of(1, 2));
+
+        publisher.submit(3);
+        publisher.close();
+        future.join();
+        assertEquals(windows.size(), 2);
+        assertEquals(windows.get(1).join(), List.of(3));
+    }
+
+    public void windowSubscribedAfterCompletion() {
+        List<Rx<Integer>> windows = new ArrayList<>();
+        Rx.each(numbers)
+                .window(100)
+                .observe(windows::add)
+                .subscribe()
+                .join();
+        assertEquals(windows.size(), 1);
+        // the items were queued in the window until it was subscribed to
+        assertEquals(windows.get(0).collect(Collectors.toList()).subscribe().join(), numbers);
+    }
+
+    public void windowRejectsSecondSubscriber() {
+        BatchProcessor.WindowPublisher<Integer> window = new BatchProcessor.WindowPublisher<>();
+        CompletableFuture<List<Integer>> first = Rx.from(window).collect(Collectors.toList()).subscribe();
+        AtomicReference<Throwable> rejection = new AtomicReference<>();
+        window.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                fail("the rejected subscriber received an item");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                rejection.set(throwable);
+                // must not affect the window of the first subscriber
+                subscription.cancel();
+            }
+
+            @Override
+            public void onComplete() {
+                fail("the rejected subscriber was completed");
+            }
+        });
+        assertTrue(rejection.get() instanceof IllegalStateException);
+        window.add(1);
+        window.add(2);
+        window.complete();
+        assertEquals(first.join(), List.of(1, 2));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
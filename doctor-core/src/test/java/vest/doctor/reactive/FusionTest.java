@@ -0,0 +1,139 @@
+package vest.doctor.reactive;
+
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Test
+public class FusionTest extends Assert {
+
+    private final List<Integer> numbers = IntStream.range(0, 100).boxed().toList();
+
+    public void fusedChain() {
+        List<Integer> result = Rx.each(numbers)
+                .map(i -> i + 1)
+                .filter(i -> i % 2 == 0)
+                .map(i -> i * 10)
+                .takeWhile(i -> i < 100)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of(20, 40, 60, 80));
+    }
+
+    public void fusionStopsAtOtherStages() {
+        AtomicInteger completions = new AtomicInteger();
+        List<Integer> result = Rx.each(numbers)
+                .map(i -> i + 1)
+                .runOnComplete(completions::incrementAndGet)
+                .map(i -> i - 1)
+                .filter(i -> i < 3)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of(0, 1, 2));
+        assertEquals(completions.get(), 1);
+    }
+
+    public void fusedMatchesUnfused() {
+        Function<Rx<Integer>, Rx<String>> pipeline = rx -> rx
+                .map(i -> i * 3)
+                .filter(i -> i % 2 == 1)
+                .observe(i -> {
+                })
+                .flatMapIterable(i -> List.of(i, -i))
+                .map(String::valueOf);
+        List<String> fused = pipeline.apply(Rx.each(numbers)).collect(Collectors.toList()).subscribe().join();
+        List<String> unfused = Rx.each(numbers)
+                .<Integer>chain(new Processors.OnNextProcessor<>(new Rx.Mapper<>(i -> i * 3)))
+                .<Integer>chain(new Processors.OnNextProcessor<>(new Rx.Filter<>(i -> i % 2 == 1, false)))
+                .<Integer>chain(new Processors.OnNextProcessor<Integer, Integer>((i, sub, subscriber) -> {
+                    subscriber.onNext(i);
+                    subscriber.onNext(-i);
+                }))
+                .<String>chain(new Processors.OnNextProcessor<>(new Rx.Mapper<>(String::valueOf)))
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(fused, unfused);
+    }
+
+    public void takeWhileCompletes() {
+        List<Integer> result = Rx.each(numbers)
+                .map(i -> i * 2)
+                .takeWhile(i -> i < 10)
+                .map(i -> i + 1)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of(1, 3, 5, 7, 9));
+    }
+
+    public void errorInFusedStage() {
+        CompletableFuture<List<Integer>> future = Rx.each(numbers)
+                .map(i -> i + 1)
+                .map(i -> {
+                    if (i == 50) {
+                        throw new IllegalStateException("fail");
+                    }
+                    return i;
+                })
+                .filter(i -> true)
+                .collect(Collectors.toList())
+                .subscribe();
+        CompletionException e = expectThrows(CompletionException.class, future::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    public void futureStageInFusedChain() {
+        List<String> result = Rx.each(List.of("a", "b", "c"))
+                .map(String::toUpperCase)
+                .mapFuture(s -> CompletableFuture.completedFuture(s + s))
+                .map(String::toLowerCase)
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of("aa", "bb", "cc"));
+    }
+
+    @Test(groups = "benchmark")
+    public void benchmark() {
+        List<Integer> items = IntStream.range(0, 20_000).boxed().toList();
+        for (int length : new int[]{1, 2, 4, 8, 16}) {
+            // warm up
+            for (int i = 0; i < 20; i++) {
+                run(items, length, true);
+                run(items, length, false);
+            }
+            double fused = 0;
+            double unfused = 0;
+            for (int i = 0; i < 20; i++) {
+                fused += run(items, length, true);
+                unfused += run(items, length, false);
+            }
+            Reporter.log(String.format("rx chain of %d maps: fused %.1f ns/item, unfused %.1f ns/item", length, fused / 20, unfused / 20));
+        }
+    }
+
+    private static double run(List<Integer> items, int length, boolean fused) {
+        Rx<Integer> rx = Rx.each(items);
+        for (int i = 0; i < length; i++) {
+            rx = fused
+                    ? rx.map(x -> x + 1)
+                    : rx.chain(new Processors.OnNextProcessor<Integer, Integer>(new Rx.Mapper<>(x -> x + 1)));
+        }
+        long start = System.nanoTime();
+        long count = rx.collect(Collectors.counting()).subscribe().join();
+        double nanosPerItem = (System.nanoTime() - start) / (double) items.size();
+        assertEquals(count, items.size());
+        return nanosPerItem;
+    }
+}
@@ -0,0 +1,179 @@
+package vest.doctor.reactive;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Test
+public class ParallelRxTest extends Assert {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<Integer> numbers = IntStream.range(0, 1000).boxed().toList();
+
+    @AfterClass(alwaysRun = true)
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void ordered() {
+        List<Integer> result = Rx.each(numbers)
+                .parallel(4, executor)
+                .map(i -> {
+                    sleepRandomly();
+                    return i * 2;
+                })
+                .ordered()
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, numbers.stream().map(i -> i * 2).toList());
+    }
+
+    public void orderedWithFilter() {
+        List<String> result = Rx.each(numbers)
+                .parallel(3, executor, 4)
+                .filter(i -> i % 3 == 0)
+                .observe(i -> sleepRandomly())
+                .map(String::valueOf)
+                .ordered()
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, numbers.stream().filter(i -> i % 3 == 0).map(String::valueOf).toList());
+    }
+
+    public void sequential() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> result = Rx.each(numbers)
+                .parallel(4, executor)
+                .observe(i -> threads.add(Thread.currentThread().getName()))
+                .map(i -> i + 1)
+                .sequential()
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result.stream().sorted().toList(), numbers.stream().map(i -> i + 1).toList());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    public void empty() {
+        List<Integer> result = Rx.<Integer>empty()
+                .parallel(2, executor)
+                .ordered()
+                .collect(Collectors.toList())
+                .subscribe()
+                .join();
+        assertEquals(result, List.of());
+    }
+
+    public void error() {
+        CompletableFuture<List<Integer>> future = Rx.each(numbers)
+                .parallel(4, executor)
+                .map(i -> {
+                    if (i == 500) {
+                        throw new IllegalStateException("fail");
+                    }
+                    return i;
+                })
+                .sequential()
+                .collect(Collectors.toList())
+                .subscribe();
+        CompletionException e = expectThrows(CompletionException.class, future::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    public void boundedPrefetch() {
+        DemandSource source = new DemandSource(10_000);
+        long count = Rx.from(source)
+                .parallel(4, executor, 8)
+                .map(i -> i * 2)
+                .ordered()
+                .collect(Collectors.counting())
+                .subscribe()
+                .join();
+        assertEquals(count, 10_000);
+        assertTrue(source.maxOutstanding.get() <= 4 * 8, "outstanding: " + source.maxOutstanding.get());
+    }
+
+    public void downstreamDemand() throws InterruptedException {
+        DemandSource source = new DemandSource(100);
+        AtomicInteger received = new AtomicInteger();
+        Rx.from(source)
+                .parallel(2, executor, 4)
+                .ordered()
+                .observe(i -> received.incrementAndGet())
+                .subscribe(3);
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(received.get(), 3);
+        // items are prefetched, but no further than the rails can hold
+        assertTrue(source.emitted.get() <= 3 + 2 * 4, "emitted: " + source.emitted.get());
+    }
+
+    private static void sleepRandomly() {
+        try {
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(200));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // publishes a range of integers, only as they are requested
+    private static final class DemandSource implements Flow.Publisher<Integer> {
+        private final int size;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicLong maxOutstanding = new AtomicLong();
+        private final AtomicInteger emitted = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        DemandSource(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    long outstanding = requested.addAndGet(n);
+                    maxOutstanding.accumulateAndGet(outstanding, Math::max);
+                    if (wip.getAndIncrement() != 0) {
+                        return;
+                    }
+                    int missed = 1;
+                    do {
+                        while (!cancelled && requested.get() > 0 && emitted.get() < size) {
+                            requested.decrementAndGet();
+                            subscriber.onNext(emitted.getAndIncrement());
+                        }
+                        if (emitted.get() == size && !cancelled) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                        }
+                        missed = wip.addAndGet(-missed);
+                    } while (missed != 0);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+}
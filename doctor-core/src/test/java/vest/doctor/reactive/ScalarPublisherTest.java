@@ -0,0 +1,202 @@
+package vest.doctor.reactive;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Checks the Reactive Streams publisher and subscription rules that apply to {@link ScalarPublisher}.
+ */
+@Test
+public class ScalarPublisherTest extends Assert {
+
+    public void noSignalsBeforeStart() {
+        ScalarPublisher<String> publisher = ScalarPublisher.one("a");
+        Recorder<String> recorder = new Recorder<>(s -> s.request(1));
+        publisher.subscribe(recorder);
+        assertEquals(recorder.signals, List.of("subscribe"));
+        publisher.start();
+        assertEquals(recorder.signals, List.of("subscribe", "next:a", "complete"));
+    }
+
+    // 1.1: the item is not delivered without demand, 1.9: onSubscribe is the first signal
+    public void itemRequiresDemand() {
+        ScalarPublisher<String> publisher = started(ScalarPublisher.one("a"));
+        Recorder<String> recorder = new Recorder<>(s -> {
+        });
+        publisher.subscribe(recorder);
+        assertEquals(recorder.signals, List.of("subscribe"));
+        recorder.subscription.request(1);
+        assertEquals(recorder.signals, List.of("subscribe", "next:a", "complete"));
+        // 1.7, 3.6: no signals after the terminal signal
+        recorder.subscription.request(1);
+        recorder.subscription.cancel();
+        assertEquals(recorder.signals, List.of("subscribe", "next:a", "complete"));
+    }
+
+    // 3.3: a request from within onSubscribe is delivered synchronously, after onSubscribe's request
+    public void reentrantRequest() {
+        Recorder<String> recorder = new Recorder<>(s -> s.request(Long.MAX_VALUE));
+        started(ScalarPublisher.one("a")).subscribe(recorder);
+        assertEquals(recorder.signals, List.of("subscribe", "next:a", "complete"));
+    }
+
+    // 3.9: non-positive requests signal an IllegalArgumentException
+    public void nonPositiveRequest() {
+        for (long n : new long[]{0, -1, Long.MIN_VALUE}) {
+            Recorder<String> recorder = new Recorder<>(s -> s.request(n));
+            started(ScalarPublisher.one("a")).subscribe(recorder);
+            assertEquals(recorder.signals, List.of("subscribe", "error:IllegalArgumentException"));
+        }
+    }
+
+    // 3.7, 3.12: cancel is idempotent and stops signals
+    public void cancel() {
+        Recorder<String> recorder = new Recorder<>(s -> {
+            s.cancel();
+            s.cancel();
+            s.request(1);
+        });
+        started(ScalarPublisher.one("a")).subscribe(recorder);
+        assertEquals(recorder.signals, List.of("subscribe"));
+
+        Recorder<String> cancelOnNext = new Recorder<>(s -> s.request(1)) {
+            @Override
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        started(ScalarPublisher.one("a")).subscribe(cancelOnNext);
+        assertEquals(cancelOnNext.signals, List.of("subscribe", "next:a"));
+    }
+
+    // 1.4, 1.5: terminal signals are delivered without demand
+    public void terminalSignals() {
+        Recorder<String> empty = new Recorder<>(s -> {
+        });
+        started(ScalarPublisher.<String>empty()).subscribe(empty);
+        assertEquals(empty.signals, List.of("subscribe", "complete"));
+
+        Recorder<String> error = new Recorder<>(s -> {
+        });
+        started(ScalarPublisher.<String>error(new IllegalStateException())).subscribe(error);
+        assertEquals(error.signals, List.of("subscribe", "error:IllegalStateException"));
+    }
+
+    // 2.13: null items are signalled as an error instead of being delivered
+    public void nullItem() {
+        Recorder<String> recorder = new Recorder<>(s -> s.request(1));
+        started(ScalarPublisher.<String>one(null)).subscribe(recorder);
+        assertEquals(recorder.signals, List.of("subscribe", "error:NullPointerException"));
+    }
+
+    // 1.9: subscribe with a null subscriber throws
+    public void nullSubscriber() {
+        assertThrows(NullPointerException.class, () -> started(ScalarPublisher.one("a")).subscribe(null));
+    }
+
+    // 1.10, 1.11: every subscriber gets the item
+    public void multipleSubscribers() {
+        ScalarPublisher<String> publisher = ScalarPublisher.one("a");
+        Recorder<String> before = new Recorder<>(s -> s.request(1));
+        publisher.subscribe(before);
+        publisher.start();
+        Recorder<String> after = new Recorder<>(s -> s.request(1));
+        publisher.subscribe(after);
+        assertEquals(before.signals, List.of("subscribe", "next:a", "complete"));
+        assertEquals(after.signals, List.of("subscribe", "next:a", "complete"));
+    }
+
+    // 1.3: racing request, cancel and start deliver at most one item and one terminal signal
+    public void concurrentSignals() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                ScalarPublisher<String> publisher = ScalarPublisher.one("a");
+                Recorder<String> recorder = new Recorder<>(s -> {
+                });
+                publisher.subscribe(recorder);
+                CountDownLatch latch = new CountDownLatch(3);
+                boolean cancel = i % 2 == 0;
+                executor.execute(() -> {
+                    recorder.subscription.request(1);
+                    latch.countDown();
+                });
+                executor.execute(() -> {
+                    recorder.subscription.request(1);
+                    latch.countDown();
+                });
+                executor.execute(() -> {
+                    if (cancel) {
+                        recorder.subscription.cancel();
+                    }
+                    publisher.start();
+                    latch.countDown();
+                });
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+                if (cancel) {
+                    assertTrue(recorder.signals.size() <= 3, recorder.signals.toString());
+                } else {
+                    assertEquals(recorder.signals, List.of("subscribe", "next:a", "complete"));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void rxComposition() {
+        assertEquals(Rx.one("a").map(String::toUpperCase).subscribe().join(), "A");
+        assertNull(Rx.empty().subscribe().join());
+        assertThrows(Exception.class, () -> Rx.error(new IllegalStateException()).subscribe().join());
+        // delivered on the subscribing thread
+        Thread thread = Thread.currentThread();
+        assertSame(Rx.one("a").map(s -> Thread.currentThread()).subscribe().getNow(null), thread);
+    }
+
+    private static <T> ScalarPublisher<T> started(ScalarPublisher<T> publisher) {
+        publisher.start();
+        return publisher;
+    }
+
+    private static class Recorder<T> implements Flow.Subscriber<T> {
+        final List<String> signals = new CopyOnWriteArrayList<>();
+        final Consumer<Flow.Subscription> onSubscribe;
+        Flow.Subscription subscription;
+
+        Recorder(Consumer<Flow.Subscription> onSubscribe) {
+            this.onSubscribe = onSubscribe;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            signals.add("subscribe");
+            onSubscribe.accept(subscription);
+        }
+
+        @Override
+        public void onNext(T item) {
+            signals.add("next:" + item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add("error:" + throwable.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add("complete");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package vest.doctor.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Test
+public class HashedWheelScheduledExecutorServiceTest extends Assert {
+
+    private final ExecutorService worker = Executors.newCachedThreadPool();
+
+    @AfterClass(alwaysRun = true)
+    public void shutdownWorker() {
+        worker.shutdownNow();
+    }
+
+    public void shutdownCancelsDelayedTasks() throws Exception {
+        HashedWheelScheduledExecutorService wheel = newWheel();
+        ScheduledFuture<String> ran = wheel.schedule(() -> "ran", 0, TimeUnit.MILLISECONDS);
+        assertEquals(ran.get(5, TimeUnit.SECONDS), "ran");
+
+        ScheduledFuture<?> delayed = wheel.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        ScheduledFuture<?> periodic = wheel.scheduleAtFixedRate(() -> {
+        }, 0, 5, TimeUnit.MILLISECONDS);
+        wheel.shutdown();
+        assertTrue(wheel.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(delayed.isCancelled());
+        // the periodic task is cancelled either by the timer or after its next run
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!periodic.isDone() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertTrue(periodic.isCancelled());
+        expectThrows(RejectedExecutionException.class, () -> wheel.schedule(() -> {
+        }, 1, TimeUnit.SECONDS));
+    }
+
+    public void shutdownNowReturnsDiscardedTasks() {
+        HashedWheelScheduledExecutorService wheel = newWheel();
+        ScheduledFuture<?> first = wheel.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        ScheduledFuture<?> second = wheel.schedule(() -> {
+        }, 2, TimeUnit.HOURS);
+        List<Runnable> discarded = wheel.shutdownNow();
+        assertTrue(wheel.isTerminated());
+        assertEquals(discarded.size(), 2);
+        assertTrue(discarded.contains((Runnable) first));
+        assertTrue(discarded.contains((Runnable) second));
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+    }
+
+    private HashedWheelScheduledExecutorService newWheel() {
+        return new HashedWheelScheduledExecutorService(1, TimeUnit.MILLISECONDS, 64, () -> worker, Executors.defaultThreadFactory());
+    }
+}
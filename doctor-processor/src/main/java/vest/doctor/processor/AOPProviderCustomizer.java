@@ -67,12 +67,12 @@ public class AOPProviderCustomizer implements ProviderCustomizationPoint {
     }
 
     private boolean hasAspects(AnnotationProcessorContext context, ProviderDefinition providerDefinition) {
-        if (providerDefinition.annotationSource().getAnnotation(Aspects.class) != null) {
+        if (!getAspects(providerDefinition.annotationSource()).isEmpty()) {
             return true;
         }
         return ProcessorUtils.allMethods(context, providerDefinition.providedType())
                 .stream()
-                .anyMatch(method -> method.getAnnotation(Aspects.class) != null && method.getAnnotation(Factory.class) == null);
+                .anyMatch(method -> !getAspects(method).isEmpty() && method.getAnnotation(Factory.class) == null);
     }
 
     private String createDelegationClass(AnnotationProcessorContext context, ProviderDefinition providerDefinition) {
@@ -303,7 +303,15 @@ public class AOPProviderCustomizer implements ProviderCustomizationPoint {
 
     private static List<String> getAspects(Element element) {
         return element.getAnnotationMirrors().stream()
-                .filter(am -> am.getAnnotationType().toString().equals(Aspects.class.getCanonicalName()))
+                .flatMap(am -> {
+                    if (am.getAnnotationType().toString().equals(Aspects.class.getCanonicalName())) {
+                        return Stream.of(am);
+                    }
+                    // annotations that are themselves marked with @Aspects pull in the listed aspects
+                    return am.getAnnotationType().asElement().getAnnotationMirrors()
+                            .stream()
+                            .filter(meta -> meta.getAnnotationType().toString().equals(Aspects.class.getCanonicalName()));
+                })
                 .flatMap(am -> am.getElementValues().entrySet().stream())
                 .filter(e -> e.getKey().getSimpleName().toString().equals(Constants.ANNOTATION_VALUE))
                 .map(Map.Entry::getValue)
@@ -3,12 +3,19 @@ package vest.doctor.processor;
 import jakarta.inject.Inject;
 import vest.doctor.Activation;
 import vest.doctor.DoctorProvider;
+import vest.doctor.ExecutorMetrics;
 import vest.doctor.Factory;
 import vest.doctor.Import;
 import vest.doctor.Primary;
 import vest.doctor.PrimaryProviderWrapper;
 import vest.doctor.Prioritized;
 import vest.doctor.ProviderRegistry;
+import vest.doctor.ScheduledTaskMetrics;
+import vest.doctor.aop.BatchedAspect;
+import vest.doctor.aop.CacheResultAspect;
+import vest.doctor.aop.CircuitBreakerAspect;
+import vest.doctor.aop.RetryAspect;
+import vest.doctor.aop.SingleFlightAspect;
 import vest.doctor.codegen.AnnotationClassValueVisitor;
 import vest.doctor.codegen.ClassBuilder;
 import vest.doctor.codegen.Constants;
@@ -117,6 +124,13 @@ public class DoctorAnnotationProcessor extends AbstractProcessor implements Anno
         addSatisfiedDependency(ProviderRegistry.class, null);
         addSatisfiedDependency(ConfigurationFacade.class, null);
         addSatisfiedDependency(EventBus.class, null);
+        addSatisfiedDependency(ExecutorMetrics.class, null);
+        addSatisfiedDependency(ScheduledTaskMetrics.class, null);
+        addSatisfiedDependency(BatchedAspect.class, null);
+        addSatisfiedDependency(CacheResultAspect.class, null);
+        addSatisfiedDependency(CircuitBreakerAspect.class, null);
+        addSatisfiedDependency(RetryAspect.class, null);
+        addSatisfiedDependency(SingleFlightAspect.class, null);
         appLoaderWriter = new AppLoaderWriter(this);
     }
 
@@ -114,41 +114,48 @@ public class DoctorNewInstanceCustomizer implements NewInstanceCustomizer {
 
     private void processInterval(AnnotationProcessorContext context, ProviderDefinition providerDefinition, MethodBuilder method, String instanceRef, String providerRegistryRef, ExecutableElement scheduledMethod) {
         Scheduled scheduled = scheduledMethod.getAnnotation(Scheduled.class);
-        method.bind("instance", instanceRef)
-                .bind("executionLimit", String.valueOf(scheduled.executionLimit()))
-                .bind("Interval", Interval.class.getCanonicalName())
-                .bind("intvl", "{{providerRegistry}}.resolvePlaceholders(" + ProcessorUtils.escapeAndQuoteStringForCode(scheduled.interval()) + ")")
-                .bind("fixedRate", scheduled.type() == Scheduled.Type.FIXED_RATE)
+        // the bindings are shared by all scheduled methods of the provider, so only invariant values are bound
+        method.bind("Interval", Interval.class.getCanonicalName())
+                .bind("Scheduled", Scheduled.class.getCanonicalName())
                 .bind("InjectionException", InjectionException.class.getCanonicalName())
-                .bind("method", ProcessorUtils.debugString(scheduledMethod))
 
                 .addImportClass(ScheduledTaskWrapper.class)
-                .line("ScheduledTaskWrapper.run({{providerRegistry}}, {{instance}}, {{executionLimit}}L, new {{Interval}}({{providerRegistry}}.resolvePlaceholders(", ProcessorUtils.escapeAndQuoteStringForCode(scheduled.interval()), ")), ses, {{fixedRate}}, (provRegistry, val) -> {")
+                .line("ScheduledTaskWrapper.run({{providerRegistry}}, ", instanceRef, ", ", ProcessorUtils.escapeAndQuoteStringForCode(taskName(scheduledMethod)), ", ", scheduled.executionLimit(), "L, ",
+                        "new {{Interval}}({{providerRegistry}}.resolvePlaceholders(", ProcessorUtils.escapeAndQuoteStringForCode(scheduled.interval()), ")), ses, ",
+                        "{{Scheduled}}.Type.", scheduled.type(), ", {{Scheduled}}.Overlap.", scheduled.overlap(), ", {{Scheduled}}.Misfire.", scheduled.misfire(), ", ", jitter(scheduled), ", {{Scheduled}}.Jitter.", scheduled.jitterType(), ", (provRegistry, val) -> {")
                 .line("try {")
                 .line(context.executableCall(providerDefinition, scheduledMethod, "val", "provRegistry") + ";")
                 .line("} catch(Throwable t) {")
-                .line("throw new {{InjectionException}}(\"error executing scheduled method {{method}}\", t);")
+                .line("throw new {{InjectionException}}(\"error executing scheduled method ", ProcessorUtils.escapeStringForCode(ProcessorUtils.debugString(scheduledMethod)), "\", t);")
                 .line("}")
                 .line("});");
     }
 
     private void processCron(AnnotationProcessorContext context, ProviderDefinition providerDefinition, MethodBuilder method, String instanceRef, String providerRegistryRef, ExecutableElement scheduledMethod) {
         Scheduled scheduled = scheduledMethod.getAnnotation(Scheduled.class);
-        method.bind("instance", instanceRef)
-                .bind("schedule", "{{providerRegistry}}.resolvePlaceholders(" + ProcessorUtils.escapeAndQuoteStringForCode(scheduled.cron()) + ")")
-                .bind("executionLimit", String.valueOf(scheduled.executionLimit()))
-                .bind("Cron", Cron.class.getCanonicalName())
-                .bind("cron", "new {{Cron}}({{schedule}})")
+        method.bind("Cron", Cron.class.getCanonicalName())
+                .bind("Scheduled", Scheduled.class.getCanonicalName())
                 .bind("InjectionException", InjectionException.class.getCanonicalName())
-                .bind("method", ProcessorUtils.debugString(scheduledMethod))
 
                 .addImportClass(CronTaskWrapper.class)
-                .line("CronTaskWrapper.run({{providerRegistry}}, {{instance}}, {{cron}}, {{executionLimit}}L, ses, (provRegistry, val) -> {")
+                .line("CronTaskWrapper.run({{providerRegistry}}, ", instanceRef, ", ", ProcessorUtils.escapeAndQuoteStringForCode(taskName(scheduledMethod)), ", ",
+                        "new {{Cron}}({{providerRegistry}}.resolvePlaceholders(", ProcessorUtils.escapeAndQuoteStringForCode(scheduled.cron()), ")), ", scheduled.executionLimit(), "L, ses, ",
+                        "{{Scheduled}}.Overlap.", scheduled.overlap(), ", {{Scheduled}}.Misfire.", scheduled.misfire(), ", ", jitter(scheduled), ", {{Scheduled}}.Jitter.", scheduled.jitterType(), ", (provRegistry, val) -> {")
                 .line("try {")
-                .line(context.executableCall(providerDefinition, scheduledMethod, instanceRef, providerRegistryRef) + ";")
+                .line(context.executableCall(providerDefinition, scheduledMethod, "val", "provRegistry") + ";")
                 .line("} catch(Throwable t) {")
-                .line("throw new {{InjectionException}}(\"error executing scheduled method {{method}}\", t);")
+                .line("throw new {{InjectionException}}(\"error executing scheduled method ", ProcessorUtils.escapeStringForCode(ProcessorUtils.debugString(scheduledMethod)), "\", t);")
                 .line("}")
                 .line("});");
     }
+
+    private static String jitter(Scheduled scheduled) {
+        return scheduled.jitter().isEmpty()
+                ? "null"
+                : "new " + Interval.class.getCanonicalName() + "({{providerRegistry}}.resolvePlaceholders(" + ProcessorUtils.escapeAndQuoteStringForCode(scheduled.jitter()) + "))";
+    }
+
+    private static String taskName(ExecutableElement scheduledMethod) {
+        return ((TypeElement) scheduledMethod.getEnclosingElement()).getQualifiedName() + "." + scheduledMethod.getSimpleName();
+    }
 }
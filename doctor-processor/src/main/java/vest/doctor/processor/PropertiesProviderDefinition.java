@@ -49,17 +49,33 @@ public class PropertiesProviderDefinition extends AbstractProviderDefinition {
         MethodBuilder constructor = impl.newMethod("public ", implClass, "(", ProviderRegistry.class, " {{providerRegistry}})");
         constructor.line("super({{providerRegistry}});");
 
+        impl.addImportClass(PropertiesTrait.PropertyValue.class);
+        MethodBuilder reload = impl.newMethod("@Override protected void reloadProperties()");
         for (ExecutableElement method : ProcessorUtils.allMethods(context, providedType())) {
             if (method.getAnnotation(Property.class) != null) {
                 if (method.getParameters().size() > 0) {
                     throw new CodeProcessingException("@Property methods in @Properties definition interfaces may not have parameters", method);
                 }
-                MethodBuilder mb = impl.newMethod("@Override public ", method.getReturnType(), " ", method.getSimpleName(), "()");
                 TypeMirror returnType = method.getReturnType();
                 String propertyName = propertyPrefix + method.getAnnotation(Property.class).value();
-                String code = PropertyCodeGen.getPropertyCode(context, method, propertyName, returnType, PROVIDER_REGISTRY);
-                String cacheKey = method.getSimpleName() + "$" + returnType + "$" + propertyName;
-                mb.line("return cached(" + ProcessorUtils.escapeAndQuoteStringForCode(cacheKey) + ", () ->" + code + ");");
+                String code = PropertyCodeGen.getPropertyCode(context, method, propertyName, "n", returnType, PROVIDER_REGISTRY);
+                String field = method.getSimpleName() + "$" + context.nextId();
+                impl.addField("private volatile PropertyValue ", field);
+                MethodBuilder mb = impl.newMethod("@Override @SuppressWarnings(\"unchecked\") public ", returnType, " ", method.getSimpleName(), "()");
+                mb.line("PropertyValue v = ", field, ";");
+                mb.line("if (v == null) {");
+                mb.line("long version = configurationVersion();");
+                mb.line("v = load(", ProcessorUtils.escapeAndQuoteStringForCode(propertyName), ", n -> ", code, ");");
+                mb.line(field, " = v;");
+                // a reload that raced with the load may have been missed, leave the value to be loaded again
+                mb.line("if (configurationVersion() != version) {");
+                mb.line(field, " = null;");
+                mb.line("}");
+                mb.line("}");
+                mb.line("return (", returnType, ") v.value();");
+                reload.line("if (isStale(", field, ")) {");
+                reload.line(field, " = null;");
+                reload.line("}");
             } else if (!method.isDefault() && !method.getModifiers().contains(Modifier.STATIC)) {
                 throw new CodeProcessingException("all non-default methods defined in a @Properties interface must have a @Property annotation", method);
             }
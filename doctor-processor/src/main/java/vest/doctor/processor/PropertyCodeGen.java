@@ -19,23 +19,30 @@ public final class PropertyCodeGen {
     }
 
     public static String getPropertyCode(AnnotationProcessorContext context, Element target, String propertyName, TypeMirror typeMirror, String beanProviderRef) {
+        return getPropertyCode(context, target, propertyName, beanProviderRef + ".resolvePlaceholders(\"" + propertyName + "\")", typeMirror, beanProviderRef);
+    }
+
+    /**
+     * Generate the code to get a property value, using the given code to get the (already resolved) property name.
+     */
+    public static String getPropertyCode(AnnotationProcessorContext context, Element target, String propertyName, String propertyNameCode, TypeMirror typeMirror, String beanProviderRef) {
         try {
             if (typeMirror.getKind().isPrimitive()) {
-                return getPrimitivePropertyCode(context, propertyName, typeMirror, beanProviderRef);
+                return getPrimitivePropertyCode(context, propertyNameCode, typeMirror, beanProviderRef);
             } else {
-                return getObjectPropertyCode(context, propertyName, typeMirror, beanProviderRef);
+                return getObjectPropertyCode(context, propertyName, propertyNameCode, typeMirror, beanProviderRef);
             }
         } catch (Throwable t) {
             throw new IllegalArgumentException("unable to generate property code for " + ProcessorUtils.debugString(target), t);
         }
     }
 
-    private static String getPrimitivePropertyCode(AnnotationProcessorContext context, String propertyName, TypeMirror typeMirror, String beanProviderRef) {
+    private static String getPrimitivePropertyCode(AnnotationProcessorContext context, String propertyNameCode, TypeMirror typeMirror, String beanProviderRef) {
         String converterMethod = getConverterMethod(context, typeMirror);
-        return buildPropCode(beanProviderRef, "get", propertyName, converterMethod);
+        return buildPropCode(beanProviderRef, "get", propertyNameCode, converterMethod);
     }
 
-    private static String getObjectPropertyCode(AnnotationProcessorContext context, String propertyName, TypeMirror typeMirror, String beanProviderRef) {
+    private static String getObjectPropertyCode(AnnotationProcessorContext context, String propertyName, String propertyNameCode, TypeMirror typeMirror, String beanProviderRef) {
         TypeElement typeElement = context.toTypeElement(typeMirror);
         if (ProcessorUtils.isCompatibleWith(context, typeElement, Provider.class)) {
             throw new IllegalArgumentException("@Properties can not be Provider types: " + ProcessorUtils.debugString(typeElement));
@@ -74,7 +81,7 @@ public final class PropertyCodeGen {
         }
 
         String converterMethod = getConverterMethod(context, convertType);
-        String code = buildPropCode(beanProviderRef, confMethod, propertyName, converterMethod);
+        String code = buildPropCode(beanProviderRef, confMethod, propertyNameCode, converterMethod);
         if (isOptional) {
             return "java.util.Optional.ofNullable(" + code + ")";
         } else {
@@ -92,7 +99,7 @@ public final class PropertyCodeGen {
         throw new IllegalArgumentException("unable to convert collection values for property parameter: " + typeMirror);
     }
 
-    private static String buildPropCode(String beanProviderRef, String confMethod, String propertyName, String converterMethod) {
-        return beanProviderRef + ".configuration()." + confMethod + "(" + beanProviderRef + ".resolvePlaceholders(\"" + propertyName + "\"), " + converterMethod + ")";
+    private static String buildPropCode(String beanProviderRef, String confMethod, String propertyNameCode, String converterMethod) {
+        return beanProviderRef + ".configuration()." + confMethod + "(" + propertyNameCode + ", " + converterMethod + ")";
     }
 }
@@ -0,0 +1,35 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.event.AsyncConsumer;
+import vest.doctor.event.EventConsumer;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+@Singleton
+@AsyncConsumer(executor = "background", queueSize = 16)
+public class TCAsyncConsumer implements EventConsumer<TCAsyncConsumer.Ping> {
+
+    public record Ping(int sequence) {
+    }
+
+    private final List<Integer> received = new CopyOnWriteArrayList<>();
+    private final Set<String> threads = new CopyOnWriteArraySet<>();
+
+    @Override
+    public void accept(Ping event) {
+        received.add(event.sequence());
+        threads.add(Thread.currentThread().getName());
+    }
+
+    public List<Integer> received() {
+        return received;
+    }
+
+    public Set<String> threads() {
+        return threads;
+    }
+}
@@ -0,0 +1,36 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.aop.Batched;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Singleton
+public class TCBatched {
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Batched(bulkMethod = "lookupAll", maxSize = 4, maxDelay = "20ms")
+    public CompletableFuture<String> lookup(Integer id) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Batched(bulkMethod = "lookupAll", maxDelay = "5ms")
+    public String lookupSync(Integer id) {
+        throw new UnsupportedOperationException();
+    }
+
+    public Map<Integer, String> lookupAll(List<Integer> ids) {
+        batchSizes.add(ids.size());
+        return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "v" + id));
+    }
+
+    public List<Integer> batchSizes() {
+        return batchSizes;
+    }
+}
@@ -0,0 +1,71 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.aop.CacheResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class TCCacheResult {
+
+    private final AtomicInteger squareCalls = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger asyncCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @CacheResult(name = "tc-cache-square", maxSize = 10)
+    public int square(int i) {
+        squareCalls.incrementAndGet();
+        return i * i;
+    }
+
+    @CacheResult(name = "tc-cache-slow", ttl = "50ms")
+    public String slow(String value) throws InterruptedException {
+        slowCalls.incrementAndGet();
+        release.await(5, TimeUnit.SECONDS);
+        return value.toUpperCase();
+    }
+
+    @CacheResult(name = "tc-cache-async")
+    public CompletableFuture<String> async(boolean fail) {
+        asyncCalls.incrementAndGet();
+        if (fail) {
+            return CompletableFuture.failedFuture(new IllegalStateException("failure"));
+        }
+        return CompletableFuture.supplyAsync(() -> "ok");
+    }
+
+    @CacheResult(name = "tc-cache-shared")
+    public String user(int id) {
+        return "user:" + id;
+    }
+
+    @CacheResult(name = "tc-cache-shared")
+    public String order(int id) {
+        return "order:" + id;
+    }
+
+    @CacheResult(name = "tc-cache-shared", maxSize = 5)
+    public String conflicting(int id) {
+        return "conflicting:" + id;
+    }
+
+    public void release() {
+        release.countDown();
+    }
+
+    public int squareCalls() {
+        return squareCalls.get();
+    }
+
+    public int slowCalls() {
+        return slowCalls.get();
+    }
+
+    public int asyncCalls() {
+        return asyncCalls.get();
+    }
+}
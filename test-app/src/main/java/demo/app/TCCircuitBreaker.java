@@ -0,0 +1,74 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.aop.CircuitBreaker;
+import vest.doctor.event.CircuitBreakerStateChanged;
+import vest.doctor.event.EventConsumer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class TCCircuitBreaker implements EventConsumer<CircuitBreakerStateChanged> {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<CircuitBreakerStateChanged> transitions = new CopyOnWriteArrayList<>();
+
+    @CircuitBreaker(name = "tc-breaker",
+            windowSize = 4,
+            minimumCalls = 4,
+            openDuration = "100ms",
+            halfOpenCalls = 1,
+            fallback = "fallback")
+    public String call(boolean fail) {
+        calls.incrementAndGet();
+        if (fail) {
+            throw new IllegalStateException("failed");
+        }
+        return "ok";
+    }
+
+    public String fallback(boolean fail, Throwable error) {
+        return "fallback:" + error.getClass().getSimpleName();
+    }
+
+    @CircuitBreaker(name = "tc-breaker-async",
+            windowSize = 2,
+            minimumCalls = 2,
+            openDuration = "10s",
+            fallback = "asyncFallback")
+    public CompletableFuture<String> callAsync(boolean fail) {
+        return fail
+                ? CompletableFuture.failedFuture(new IllegalStateException("failed"))
+                : CompletableFuture.completedFuture("ok");
+    }
+
+    public CompletableFuture<String> asyncFallback(boolean fail, Throwable error) {
+        return CompletableFuture.completedFuture("fallback:" + error.getClass().getSimpleName());
+    }
+
+    @CircuitBreaker(name = "tc-breaker-unguarded",
+            windowSize = 1,
+            minimumCalls = 1,
+            openDuration = "10s")
+    public CompletableFuture<String> callUnguarded() {
+        return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public List<CircuitBreakerStateChanged> transitions() {
+        return transitions;
+    }
+
+    @Override
+    public void accept(CircuitBreakerStateChanged event) {
+        if (event.name().equals("tc-breaker")) {
+            transitions.add(event);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.event.Coalesce;
+import vest.doctor.event.CoalescingConsumer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Singleton
+@Coalesce(window = "50ms")
+public class TCCoalesce implements CoalescingConsumer<TCCoalesce.Invalidated> {
+
+    public record Invalidated(String table, int rows) {
+    }
+
+    private final List<Invalidated> received = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void accept(Invalidated event) {
+        received.add(event);
+    }
+
+    @Override
+    public Object coalesceKey(Invalidated event) {
+        return event.table();
+    }
+
+    @Override
+    public Invalidated merge(Invalidated pending, Invalidated next) {
+        return new Invalidated(pending.table(), pending.rows() + next.rows());
+    }
+
+    public List<Invalidated> received() {
+        return received;
+    }
+}
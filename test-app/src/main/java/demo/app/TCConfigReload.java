@@ -7,19 +7,21 @@ import java.util.List;
 
 public class TCConfigReload implements ConfigurationSource {
     public static boolean reloaded = false;
+    private int reloads = 0;
 
     @Override
     public String get(String propertyName) {
-        return null;
+        return propertyName.equals("tc.reload.count") ? String.valueOf(reloads) : null;
     }
 
     @Override
     public Collection<String> propertyNames() {
-        return List.of();
+        return List.of("tc.reload.count");
     }
 
     @Override
     public void reload() {
         reloaded = true;
+        reloads++;
     }
 }
@@ -22,4 +22,7 @@ public interface TCPropertiesIntfc extends TCPropertiesIntfcParent {
 
     @Property("list")
     List<Integer> numberList();
+
+    @Property("tc.reload.count")
+    int reloadCount();
 }
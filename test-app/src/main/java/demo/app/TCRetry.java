@@ -0,0 +1,58 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.aop.Retry;
+import vest.doctor.reactive.Rx;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class TCRetry {
+
+    private final AtomicInteger syncCalls = new AtomicInteger();
+    private final AtomicInteger asyncCalls = new AtomicInteger();
+    private final AtomicInteger publisherCalls = new AtomicInteger();
+    private final AtomicInteger rxCalls = new AtomicInteger();
+
+    @Retry(name = "tc-retry-sync", maxAttempts = 3, backoff = "5ms", retryOn = IllegalStateException.class)
+    public String sync(int failures) {
+        if (syncCalls.incrementAndGet() <= failures) {
+            throw new IllegalStateException("failure " + syncCalls.get());
+        }
+        return "ok";
+    }
+
+    @Retry(name = "tc-retry-async", maxAttempts = 3, backoff = "5ms", multiplier = 2, jitter = 0.5)
+    public CompletableFuture<String> async() {
+        if (asyncCalls.incrementAndGet() <= 2) {
+            return CompletableFuture.failedFuture(new IllegalStateException("failure " + asyncCalls.get()));
+        }
+        return CompletableFuture.completedFuture("ok");
+    }
+
+    @Retry(name = "tc-retry-publisher", maxAttempts = 2, backoff = "5ms")
+    public Flow.Publisher<String> publisher() {
+        if (publisherCalls.incrementAndGet() <= 1) {
+            return Rx.error(new IllegalStateException("failure"));
+        }
+        return Rx.one("ok");
+    }
+
+    @Retry(name = "tc-retry-rx", maxAttempts = 3, backoff = "5ms")
+    public Rx<String> rx() {
+        if (rxCalls.incrementAndGet() <= 2) {
+            return Rx.error(new IllegalStateException("failure"));
+        }
+        return Rx.one("ok");
+    }
+
+    public int syncCalls() {
+        return syncCalls.get();
+    }
+
+    public void reset() {
+        syncCalls.set(0);
+    }
+}
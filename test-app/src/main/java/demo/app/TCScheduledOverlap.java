@@ -0,0 +1,45 @@
+package demo.app;
+
+import vest.doctor.Prototype;
+import vest.doctor.scheduled.Scheduled;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Prototype
+public class TCScheduledOverlap {
+
+    public final AtomicInteger skipRuns = new AtomicInteger(0);
+    public final AtomicInteger concurrentRuns = new AtomicInteger(0);
+    public final AtomicInteger running = new AtomicInteger(0);
+    public final AtomicInteger maxRunning = new AtomicInteger(0);
+    public final long created = System.nanoTime();
+    public final List<Long> jitteredStarts = new CopyOnWriteArrayList<>();
+    public final List<Long> jitteredDelayStarts = new CopyOnWriteArrayList<>();
+
+    @Scheduled(interval = "10ms", executionLimit = 5)
+    public void skip() throws InterruptedException {
+        skipRuns.incrementAndGet();
+        TimeUnit.MILLISECONDS.sleep(35);
+    }
+
+    @Scheduled(interval = "10ms", executionLimit = 10, overlap = Scheduled.Overlap.CONCURRENT)
+    public void concurrent() throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        TimeUnit.MILLISECONDS.sleep(35);
+        running.decrementAndGet();
+        concurrentRuns.incrementAndGet();
+    }
+
+    @Scheduled(interval = "10ms", executionLimit = 3, jitter = "100ms", jitterType = Scheduled.Jitter.HOST)
+    public void jittered() {
+        jitteredStarts.add(System.nanoTime());
+    }
+
+    @Scheduled(interval = "10ms", type = Scheduled.Type.FIXED_DELAY, executionLimit = 3, jitter = "1s")
+    public void jitteredDelay() {
+        jitteredDelayStarts.add(System.nanoTime());
+    }
+}
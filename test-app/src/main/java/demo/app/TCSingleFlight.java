@@ -0,0 +1,44 @@
+package demo.app;
+
+import jakarta.inject.Singleton;
+import vest.doctor.aop.SingleFlight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class TCSingleFlight {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger asyncCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CompletableFuture<String> pending = new CompletableFuture<>();
+
+    @SingleFlight(name = "tc-flight")
+    public String load(String key) throws InterruptedException {
+        calls.incrementAndGet();
+        release.await(5, TimeUnit.SECONDS);
+        return key + calls.get();
+    }
+
+    @SingleFlight(name = "tc-flight-async")
+    public CompletableFuture<String> loadAsync(String key) {
+        asyncCalls.incrementAndGet();
+        return pending.thenApply(v -> key + v);
+    }
+
+    public void release() {
+        release.countDown();
+        pending.complete("!");
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public int asyncCalls() {
+        return asyncCalls.get();
+    }
+}
@@ -8,25 +8,55 @@ import demo.app.ignored.TCIgnoredClass;
 import jakarta.inject.Named;
 import jakarta.inject.Provider;
 import org.hibernate.AssertionFailure;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 import vest.doctor.AnnotationData;
 import vest.doctor.DoctorProvider;
+import vest.doctor.ExecutorMetrics;
+import vest.doctor.ExecutorStats;
+import vest.doctor.PartitionedExecutor;
+import vest.doctor.ScheduledTaskMetrics;
+import vest.doctor.ScheduledTaskStats;
 import vest.doctor.ThreadLocal;
+import vest.doctor.aop.CacheResultAspect;
+import vest.doctor.aop.CircuitBreaker;
+import vest.doctor.aop.CircuitBreakerAspect;
+import vest.doctor.aop.CircuitBreakerOpenException;
+import vest.doctor.aop.RetryAspect;
+import vest.doctor.aop.SingleFlightAspect;
 import vest.doctor.conf.ConfigurationFacade;
+import vest.doctor.event.CircuitBreakerStateChanged;
 import vest.doctor.event.EventBus;
+import vest.doctor.event.MailboxStats;
 import vest.doctor.event.ReloadConfiguration;
 import vest.doctor.event.ReloadProviders;
+import vest.doctor.reactive.Rx;
+import vest.doctor.runtime.VirtualThreads;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -56,6 +86,225 @@ public class DoctorTest extends AbstractTestAppTest {
         assertEquals(event.messageReceived, "test");
     }
 
+    @Test
+    public void asyncEventConsumer() throws InterruptedException {
+        TCAsyncConsumer consumer = providerRegistry().getInstance(TCAsyncConsumer.class);
+        EventBus bus = providerRegistry().getInstance(EventBus.class);
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new TCAsyncConsumer.Ping(i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (consumer.received().size() < 100 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(consumer.received(), IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        assertFalse(consumer.threads().contains(Thread.currentThread().getName()));
+        MailboxStats stats = bus.mailboxStats()
+                .stream()
+                .filter(s -> s.consumer().startsWith(TCAsyncConsumer.class.getName()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(stats.delivered(), 100);
+        assertEquals(stats.dropped(), 0);
+        assertEquals(stats.capacity(), 16);
+    }
+
+    @Test
+    public void virtualExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            throw new SkipException("virtual threads are not supported by java " + Runtime.version());
+        }
+        ExecutorService executor = providerRegistry().getInstance(ExecutorService.class, "virtual");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                TimeUnit.MILLISECONDS.sleep(5);
+                running.decrementAndGet();
+                return Thread.currentThread().getName();
+            }));
+        }
+        for (Future<String> future : futures) {
+            assertTrue(future.get(5, TimeUnit.SECONDS).startsWith("tc-virtual-"));
+        }
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void boundedExecutor() throws Exception {
+        ExecutorService executor = providerRegistry().getInstance(ExecutorService.class, "bounded");
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        Runnable task = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.incrementAndGet();
+        };
+        // grows to maxThreads before queueing
+        executor.execute(task);
+        executor.execute(task);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(task);
+        executor.execute(task);
+        expectThrows(RejectedExecutionException.class, () -> executor.execute(task));
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (completed.get() < 4 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(completed.get(), 4);
+
+        ExecutorMetrics metrics = providerRegistry().getInstance(ExecutorMetrics.class);
+        ExecutorStats stats = metrics.stats("bounded").orElseThrow();
+        while (stats.runTime().count() < 4 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+            stats = metrics.stats("bounded").orElseThrow();
+        }
+        assertEquals(stats.rejected(), 1);
+        assertEquals(stats.peakPoolSize(), 2);
+        assertEquals(stats.queueDepth(), 0);
+        assertEquals(stats.runTime().count(), 4);
+        assertTrue(stats.runTime().p99Nanos() <= stats.runTime().maxNanos());
+        providerRegistry().getInstance(ScheduledExecutorService.class, "scheduled");
+        assertTrue(metrics.stats().containsKey("scheduled"));
+    }
+
+    @Test
+    public void adaptiveExecutor() throws Exception {
+        ExecutorService executor = providerRegistry().getInstance(ExecutorService.class, "adaptive");
+        ExecutorMetrics metrics = providerRegistry().getInstance(ExecutorMetrics.class);
+        assertEquals(metrics.stats("adaptive").orElseThrow().corePoolSize(), 1);
+        Semaphore inFlight = new Semaphore(8);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metrics.stats("adaptive").orElseThrow().corePoolSize() <= 1 && System.currentTimeMillis() < deadline) {
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        int corePoolSize = metrics.stats("adaptive").orElseThrow().corePoolSize();
+        assertTrue(corePoolSize > 1 && corePoolSize <= 8);
+    }
+
+    @Test
+    public void partitionedExecutor() throws Exception {
+        PartitionedExecutor executor = providerRegistry().getInstance(PartitionedExecutor.class, "partitioned");
+        assertSame(providerRegistry().getInstance(ExecutorService.class, "partitioned"), executor);
+        Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int key = i % 10;
+            int value = i;
+            futures.add(executor.submit(key, () -> {
+                threads.add(Thread.currentThread().getName());
+                received.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+                return value;
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        for (int key = 0; key < 10; key++) {
+            int k = key;
+            assertEquals(received.get(key), IntStream.range(0, 1000).filter(i -> i % 10 == k).boxed().collect(Collectors.toList()));
+        }
+        assertTrue(threads.size() <= 4);
+    }
+
+    @Test
+    public void wheelExecutor() throws Exception {
+        ScheduledExecutorService executor = providerRegistry().getInstance(ScheduledExecutorService.class, "wheel");
+        List<ScheduledFuture<Long>> futures = new ArrayList<>();
+        List<ScheduledFuture<Long>> cancelled = new ArrayList<>();
+        AtomicInteger early = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 1000; i++) {
+            // delays beyond one revolution of the wheel (64 * 5ms) exercise the remaining rounds
+            long delay = i % 500;
+            long scheduled = System.nanoTime();
+            ScheduledFuture<Long> future = executor.schedule(() -> {
+                threads.add(Thread.currentThread().getName());
+                if (System.nanoTime() - scheduled < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                    early.incrementAndGet();
+                }
+                return delay;
+            }, delay, TimeUnit.MILLISECONDS);
+            if (i % 2 == 0 && delay > 100) {
+                assertTrue(future.cancel(false));
+                cancelled.add(future);
+            } else {
+                futures.add(future);
+            }
+        }
+        for (ScheduledFuture<Long> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        for (ScheduledFuture<Long> future : cancelled) {
+            assertTrue(future.isCancelled());
+        }
+        assertEquals(early.get(), 0);
+        assertTrue(threads.stream().allMatch(t -> t.startsWith("background-")), threads.toString());
+
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(runs::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (runs.get() < 5 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        periodic.cancel(false);
+        assertTrue(runs.get() >= 5);
+    }
+
+    @Test
+    public void rxBufferOnScheduledExecutor() {
+        ScheduledExecutorService scheduled = providerRegistry().getInstance(ScheduledExecutorService.class, "scheduled");
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        CompletableFuture<List<List<Integer>>> future = Rx.from(publisher)
+                .buffer(4, Duration.ofMillis(10), scheduled)
+                .collect(Collectors.toList())
+                .subscribe();
+        for (int i = 0; i < 6; i++) {
+            publisher.submit(i);
+        }
+        publisher.close();
+        List<List<Integer>> batches = future.join();
+        assertEquals(batches.stream().flatMap(List::stream).toList(), List.of(0, 1, 2, 3, 4, 5));
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 4));
+    }
+
+    @Test
+    public void coalescedEventConsumer() throws InterruptedException {
+        TCCoalesce consumer = providerRegistry().getInstance(TCCoalesce.class);
+        EventBus bus = providerRegistry().getInstance(EventBus.class);
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new TCCoalesce.Invalidated("users", 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            bus.publish(new TCCoalesce.Invalidated("orders", 2));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (consumer.received().size() < 2 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(Set.copyOf(consumer.received()), Set.of(
+                new TCCoalesce.Invalidated("users", 10),
+                new TCCoalesce.Invalidated("orders", 10)));
+    }
+
     @Test
     public void modules() {
         // No modules defined see Dev and Test ModuleTest
@@ -145,6 +394,56 @@ public class DoctorTest extends AbstractTestAppTest {
         assertTrue(instance.cronEverySecond.get() >= 1, "" + instance.cronEverySecond);
     }
 
+    @Test
+    public void scheduledOverlap() throws InterruptedException {
+        TCScheduledOverlap instance = providerRegistry().getInstance(TCScheduledOverlap.class);
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((instance.skipRuns.get() < 5 || instance.concurrentRuns.get() < 10) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(instance.skipRuns.get(), 5);
+        assertEquals(instance.concurrentRuns.get(), 10);
+        assertTrue(instance.maxRunning.get() >= 2, "" + instance.maxRunning);
+
+        ScheduledTaskMetrics metrics = providerRegistry().getInstance(ScheduledTaskMetrics.class);
+        ScheduledTaskStats skip = metrics.stats(TCScheduledOverlap.class.getName() + ".skip").orElseThrow();
+        assertTrue(skip.runs() >= 5);
+        assertTrue(skip.skipped() > 0, skip.toString());
+        assertTrue(skip.duration().p50Nanos() >= TimeUnit.MILLISECONDS.toNanos(30), skip.toString());
+        ScheduledTaskStats concurrent = metrics.stats(TCScheduledOverlap.class.getName() + ".concurrent").orElseThrow();
+        assertTrue(concurrent.runs() >= 10);
+        assertEquals(concurrent.drift().count(), concurrent.runs());
+        providerRegistry().getInstance(TCScheduled.class);
+        assertTrue(metrics.stats().containsKey(TCScheduled.class.getName() + ".cronEverySecond"));
+    }
+
+    @Test
+    public void scheduledJitter() throws InterruptedException {
+        TCScheduledOverlap instance = providerRegistry().getInstance(TCScheduledOverlap.class);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (instance.jitteredStarts.size() < 3 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        List<Long> starts = instance.jitteredStarts;
+        assertEquals(starts.size(), 3);
+        assertTrue(starts.get(0) - instance.created >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(starts.get(0) - instance.created < TimeUnit.MILLISECONDS.toNanos(1000));
+        // the offset is fixed, so the period is kept and drift is measured from the offset fire time
+        assertTrue(starts.get(2) - starts.get(0) < TimeUnit.MILLISECONDS.toNanos(100), starts.toString());
+        ScheduledTaskStats stats = providerRegistry().getInstance(ScheduledTaskMetrics.class)
+                .stats(TCScheduledOverlap.class.getName() + ".jittered")
+                .orElseThrow();
+        assertTrue(stats.drift().p50Nanos() < TimeUnit.MILLISECONDS.toNanos(50), stats.toString());
+
+        // fixed-delay schedules only offset the first fire time, the delay between runs is kept
+        while (instance.jitteredDelayStarts.size() < 3 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        List<Long> delayStarts = instance.jitteredDelayStarts;
+        assertEquals(delayStarts.size(), 3);
+        assertTrue(delayStarts.get(2) - delayStarts.get(0) < TimeUnit.MILLISECONDS.toNanos(150), delayStarts.toString());
+    }
+
     @Test
     public void providerInjection() {
         TCProviderInject instance = providerRegistry().getInstance(TCProviderInject.class);
@@ -207,6 +506,171 @@ public class DoctorTest extends AbstractTestAppTest {
         assertEquals(mapping.get("_methodName"), "mapping");
     }
 
+    @Test
+    public void circuitBreaker() throws InterruptedException {
+        TCCircuitBreaker instance = providerRegistry().getInstance(TCCircuitBreaker.class);
+        CircuitBreakerAspect aspect = providerRegistry().getInstance(CircuitBreakerAspect.class);
+        assertEquals(instance.call(false), "ok");
+        assertEquals(instance.call(false), "ok");
+        assertEquals(instance.call(true), "fallback:IllegalStateException");
+        assertEquals(aspect.state("tc-breaker").orElseThrow(), CircuitBreaker.State.CLOSED);
+        assertEquals(instance.call(true), "fallback:IllegalStateException");
+        assertEquals(aspect.state("tc-breaker").orElseThrow(), CircuitBreaker.State.OPEN);
+
+        assertEquals(instance.call(false), "fallback:CircuitBreakerOpenException");
+        assertEquals(instance.calls(), 4);
+
+        TimeUnit.MILLISECONDS.sleep(150);
+        assertEquals(instance.call(false), "ok");
+        assertEquals(aspect.state("tc-breaker").orElseThrow(), CircuitBreaker.State.CLOSED);
+        assertEquals(instance.transitions(), List.of(
+                new CircuitBreakerStateChanged("tc-breaker", CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN),
+                new CircuitBreakerStateChanged("tc-breaker", CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN),
+                new CircuitBreakerStateChanged("tc-breaker", CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED)));
+    }
+
+    @Test
+    public void circuitBreakerAsync() {
+        TCCircuitBreaker instance = providerRegistry().getInstance(TCCircuitBreaker.class);
+        CircuitBreakerAspect aspect = providerRegistry().getInstance(CircuitBreakerAspect.class);
+        assertEquals(instance.callAsync(false).join(), "ok");
+        assertEquals(instance.callAsync(true).join(), "fallback:IllegalStateException");
+        assertEquals(aspect.state("tc-breaker-async").orElseThrow(), CircuitBreaker.State.OPEN);
+        assertEquals(instance.callAsync(false).join(), "fallback:CircuitBreakerOpenException");
+
+        expectThrows(CompletionException.class, () -> instance.callUnguarded().join());
+        assertEquals(aspect.state("tc-breaker-unguarded").orElseThrow(), CircuitBreaker.State.OPEN);
+        CompletableFuture<String> open = instance.callUnguarded();
+        CompletionException e = expectThrows(CompletionException.class, open::join);
+        assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+    }
+
+    @Test
+    public void retry() throws Exception {
+        TCRetry instance = providerRegistry().getInstance(TCRetry.class);
+        RetryAspect aspect = providerRegistry().getInstance(RetryAspect.class);
+
+        assertEquals(instance.sync(2), "ok");
+        assertEquals(instance.syncCalls(), 3);
+        instance.reset();
+        expectThrows(IllegalStateException.class, () -> {
+            try {
+                instance.sync(5);
+            } catch (RuntimeException e) {
+                throw e.getCause();
+            }
+        });
+        assertEquals(instance.syncCalls(), 3);
+        assertEquals(aspect.stats("tc-retry-sync").orElseThrow(), new RetryAspect.Stats(2, 4, 1, 1));
+
+        assertEquals(instance.async().get(5, TimeUnit.SECONDS), "ok");
+        assertEquals(aspect.stats("tc-retry-async").orElseThrow(), new RetryAspect.Stats(1, 2, 1, 0));
+
+        assertEquals(Rx.from(instance.publisher()).subscribe().get(5, TimeUnit.SECONDS), "ok");
+        assertEquals(aspect.stats("tc-retry-publisher").orElseThrow(), new RetryAspect.Stats(1, 1, 1, 0));
+
+        assertEquals(instance.rx().subscribe().get(5, TimeUnit.SECONDS), "ok");
+        assertEquals(aspect.stats("tc-retry-rx").orElseThrow(), new RetryAspect.Stats(1, 2, 1, 0));
+    }
+
+    @Test
+    public void cacheResult() throws Exception {
+        TCCacheResult instance = providerRegistry().getInstance(TCCacheResult.class);
+        CacheResultAspect aspect = providerRegistry().getInstance(CacheResultAspect.class);
+
+        assertEquals(instance.square(2), 4);
+        assertEquals(instance.square(2), 4);
+        assertEquals(instance.squareCalls(), 1);
+        assertEquals(aspect.stats("tc-cache-square").orElseThrow(), new CacheResultAspect.Stats(1, 1, 1, 0, 1));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(instance.square(i), i * i);
+        }
+        CacheResultAspect.Stats stats = aspect.stats("tc-cache-square").orElseThrow();
+        assertTrue(stats.size() <= 10);
+        assertTrue(stats.evictions() > 0);
+
+        List<CompletableFuture<String>> concurrent = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return instance.slow("a");
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }))
+                .collect(Collectors.toList());
+        TimeUnit.MILLISECONDS.sleep(100);
+        instance.release();
+        for (CompletableFuture<String> future : concurrent) {
+            assertEquals(future.get(5, TimeUnit.SECONDS), "A");
+        }
+        assertEquals(instance.slowCalls(), 1);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(instance.slow("a"), "A");
+        assertEquals(instance.slowCalls(), 2);
+
+        assertEquals(instance.async(false).get(5, TimeUnit.SECONDS), "ok");
+        assertEquals(instance.async(false).get(5, TimeUnit.SECONDS), "ok");
+        assertEquals(instance.asyncCalls(), 1);
+        expectThrows(ExecutionException.class, () -> instance.async(true).get(5, TimeUnit.SECONDS));
+        expectThrows(ExecutionException.class, () -> instance.async(true).get(5, TimeUnit.SECONDS));
+        assertEquals(instance.asyncCalls(), 3);
+
+        assertEquals(instance.user(5), "user:5");
+        assertEquals(instance.order(5), "order:5");
+        assertEquals(instance.user(5), "user:5");
+        assertEquals(aspect.stats("tc-cache-shared").orElseThrow().size(), 2);
+        expectThrows(IllegalArgumentException.class, () -> instance.conflicting(5));
+    }
+
+    @Test
+    public void batched() throws Exception {
+        TCBatched instance = providerRegistry().getInstance(TCBatched.class);
+        List<CompletableFuture<String>> results = IntStream.range(0, 10)
+                .mapToObj(instance::lookup)
+                .collect(Collectors.toList());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i).get(5, TimeUnit.SECONDS), "v" + i);
+        }
+        assertEquals(instance.batchSizes().stream().mapToInt(Integer::intValue).sum(), 10);
+        assertTrue(instance.batchSizes().stream().allMatch(size -> size <= 4));
+        assertTrue(instance.batchSizes().stream().anyMatch(size -> size > 1), "no calls were batched: " + instance.batchSizes());
+
+        assertEquals(instance.lookupSync(7), "v7");
+        assertEquals(instance.batchSizes().get(instance.batchSizes().size() - 1), 1);
+    }
+
+    @Test
+    public void singleFlight() throws Exception {
+        TCSingleFlight instance = providerRegistry().getInstance(TCSingleFlight.class);
+        SingleFlightAspect aspect = providerRegistry().getInstance(SingleFlightAspect.class);
+
+        List<CompletableFuture<String>> concurrent = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return instance.load("k");
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }))
+                .collect(Collectors.toList());
+        CompletableFuture<String> first = instance.loadAsync("x");
+        CompletableFuture<String> second = instance.loadAsync("x");
+        TimeUnit.MILLISECONDS.sleep(100);
+        instance.release();
+        for (CompletableFuture<String> future : concurrent) {
+            assertEquals(future.get(5, TimeUnit.SECONDS), "k1");
+        }
+        assertEquals(instance.calls(), 1);
+        assertEquals(aspect.suppressed("tc-flight"), 3);
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), "x!");
+        assertEquals(second.get(5, TimeUnit.SECONDS), "x!");
+        assertEquals(instance.asyncCalls(), 1);
+        assertEquals(aspect.suppressed("tc-flight-async"), 1);
+
+        assertEquals(instance.load("k"), "k2");
+    }
+
     @Test
     public void dao() {
         DAO dao = providerRegistry().getInstance(DAO.class);
@@ -223,9 +687,14 @@ public class DoctorTest extends AbstractTestAppTest {
 
     @Test
     public void configurationReload() {
+        TCPropertiesIntfc properties = providerRegistry().getInstance(TCPropertiesIntfc.class);
+        int reloadCount = properties.reloadCount();
+        List<String> list = properties.stringList();
         EventBus instance = providerRegistry().getInstance(EventBus.class);
         instance.publish(new ReloadConfiguration());
         assertTrue(TCConfigReload.reloaded);
+        assertEquals(properties.reloadCount(), reloadCount + 1);
+        assertSame(properties.stringList(), list);
     }
 
     @Test
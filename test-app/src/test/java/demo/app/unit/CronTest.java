@@ -1,5 +1,6 @@
 package demo.app.unit;
 
+import org.testng.Reporter;
 import org.testng.annotations.Test;
 import vest.doctor.scheduled.Cron;
 
@@ -8,7 +9,12 @@ import java.time.Instant;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.Random;
 import java.util.function.Consumer;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertThrows;
@@ -95,6 +101,151 @@ public class CronTest {
         assertTrue(value >= start && value <= end);
     }
 
+    @Test
+    public void sparseExpressions() {
+        ZoneId utc = ZoneId.of("UTC");
+        long from = ZonedDateTime.of(2023, 3, 15, 12, 0, 0, 0, utc).toInstant().toEpochMilli();
+        assertEquals(new Cron("59 59 23 31 * *").nextFireTime(from, utc),
+                ZonedDateTime.of(2023, 3, 31, 23, 59, 59, 0, utc).toInstant().toEpochMilli());
+        assertEquals(new Cron("0 0 0 29 FEB *").nextFireTime(from, utc),
+                ZonedDateTime.of(2024, 2, 29, 0, 0, 0, 0, utc).toInstant().toEpochMilli());
+        assertEquals(new Cron("0 0 0 29 FEB MON").nextFireTime(from, utc),
+                ZonedDateTime.of(2044, 2, 29, 0, 0, 0, 0, utc).toInstant().toEpochMilli());
+        assertThrows(RuntimeException.class, () -> new Cron("0 0 0 31 FEB *").nextFireTime(from, utc));
+    }
+
+    @Test
+    public void matchesLegacyAlgorithm() {
+        Random random = new Random(42);
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        long start = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int compared = 0;
+        for (int i = 0; i < 2000; i++) {
+            String expression = String.join(" ",
+                    randomField(random, 0, 59),
+                    randomField(random, 0, 59),
+                    randomField(random, 0, 23),
+                    randomField(random, 1, 28),
+                    randomField(random, 1, 12),
+                    random.nextInt(3) == 0 ? randomField(random, 1, 7) : "*");
+            Cron cron = new Cron(expression);
+            LegacyCron legacy = new LegacyCron(expression);
+            long from = start + (long) (random.nextDouble() * 40L * 365 * 24 * 3600 * 1000);
+            for (int j = 0; j < 5; j++) {
+                long expected;
+                try {
+                    expected = legacy.nextFireTime(from);
+                } catch (RuntimeException e) {
+                    // the legacy algorithm gives up on sparse expressions
+                    break;
+                }
+                if (!rules.getOffset(Instant.ofEpochMilli(from)).equals(rules.getOffset(Instant.ofEpochMilli(expected)))) {
+                    // daylight savings transitions are handled differently
+                    break;
+                }
+                assertEquals(cron.nextFireTime(from), expected, expression + " from " + Instant.ofEpochMilli(from));
+                compared++;
+                from = expected;
+            }
+        }
+        assertTrue(compared > 5000);
+    }
+
+    @Test(groups = "benchmark")
+    public void benchmark() {
+        String[] expressions = {"* * * * * *", "0 0,15,30,45 * * * *", "0 0 0 1 JAN *", "59 59 23 28 FEB *", "0 0 0 1 JAN TUE"};
+        for (String expression : expressions) {
+            Cron cron = new Cron(expression);
+            LegacyCron legacy = new LegacyCron(expression);
+            long from = System.currentTimeMillis();
+            // warm up
+            time(cron::nextFireTime, from, 200_000);
+            time(legacy::nextFireTime, from, 200_000);
+            double compiled = time(cron::nextFireTime, from, 100_000);
+            double iterative = time(legacy::nextFireTime, from, 100_000);
+            Reporter.log(String.format("cron [%s]: compiled %.0f ns/op, legacy %.0f ns/op", expression, compiled, iterative));
+        }
+    }
+
+    private static double time(LongUnaryOperator nextFireTime, long from, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += nextFireTime.applyAsLong(from + i * 1000L);
+        }
+        double nanosPerOp = (System.nanoTime() - start) / (double) iterations;
+        assertTrue(sink != 0);
+        return nanosPerOp;
+    }
+
+    private static String randomField(Random random, int min, int max) {
+        return switch (random.nextInt(4)) {
+            case 0 -> "*";
+            case 1 -> String.valueOf(min + random.nextInt(max - min + 1));
+            case 2 -> {
+                int a = min + random.nextInt(max - min + 1);
+                int b = min + random.nextInt(max - min + 1);
+                yield Math.min(a, b) + "-" + Math.max(a, b);
+            }
+            default -> IntStream.generate(() -> min + random.nextInt(max - min + 1))
+                    .limit(1 + random.nextInt(4))
+                    .distinct()
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.joining(","));
+        };
+    }
+
+    /**
+     * The original iterative implementation of {@link Cron#nextFireTime(long)}, for comparison.
+     */
+    private static final class LegacyCron {
+        private final int[] seconds;
+        private final int[] minutes;
+        private final int[] hours;
+        private final int[] dayOfMonth;
+        private final int[] month;
+        private final int[] dayOfWeek;
+
+        LegacyCron(String expression) {
+            String[] split = expression.split("\\s+");
+            seconds = Cron.CronType.SECONDS.parse(split[0]);
+            minutes = Cron.CronType.MINUTES.parse(split[1]);
+            hours = Cron.CronType.HOURS.parse(split[2]);
+            dayOfMonth = Cron.CronType.DAY_OF_MONTH.parse(split[3]);
+            month = Cron.CronType.MONTH.parse(split[4]);
+            dayOfWeek = Cron.CronType.DAY_OF_WEEK.parse(split[5]);
+        }
+
+        long nextFireTime(long fromEpochMillis) {
+            ZonedDateTime next = Instant.ofEpochMilli(fromEpochMillis + 1000).atZone(ZoneId.systemDefault());
+            for (int i = 0; i < 15; i++) {
+                long starting = next.toEpochSecond();
+                if (seconds != null) {
+                    next = Cron.CronType.SECONDS.adjust(next, seconds);
+                }
+                if (minutes != null) {
+                    next = Cron.CronType.MINUTES.adjust(next, minutes);
+                }
+                if (hours != null) {
+                    next = Cron.CronType.HOURS.adjust(next, hours);
+                }
+                if (dayOfWeek != null) {
+                    next = Cron.CronType.DAY_OF_WEEK.adjust(next, dayOfWeek);
+                }
+                if (dayOfMonth != null) {
+                    next = Cron.CronType.DAY_OF_MONTH.adjust(next, dayOfMonth);
+                }
+                if (month != null) {
+                    next = Cron.CronType.MONTH.adjust(next, month);
+                }
+                if (starting == next.toEpochSecond()) {
+                    return next.toInstant().toEpochMilli();
+                }
+            }
+            throw new RuntimeException("failed to find the next scheduled time");
+        }
+    }
+
     @Test
     public void errorConditions() {
         assertThrows(IllegalArgumentException.class, () -> {